@@ -0,0 +1,7 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.util.List;
+
+// Result of a batch lookup: resolved pairs plus the pairs that have no rate
+public record BatchExchangeResponse(List<CurrencyExchangeResponse> rates, List<CurrencyPairRequest> notFound) {
+}
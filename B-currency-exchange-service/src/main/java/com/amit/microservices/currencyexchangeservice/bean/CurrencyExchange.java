@@ -5,10 +5,13 @@ import java.math.BigDecimal;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
  
 
 @Entity
+@Table(name = "currency_exchange", indexes = @Index(name = "ux_currency_exchange_pair", columnList = "currency_from, currency_to", unique = true))
 public class CurrencyExchange {
 	
 	@Id
@@ -0,0 +1,64 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/*
+ * Append-only history of stored rates: one row every time a rate is written.
+ * Rows are never updated. The (pair, effective_time, id) index serves both the as-of
+ * lookup (latest row at or before an instant) and range scans with one index seek; the
+ * (effective_time, id) index finds where the OHLC retention window starts.
+ */
+@Entity
+@Table(name = "currency_exchange_history", indexes = {
+		@Index(name = "ix_currency_exchange_history_pair_time", columnList = "currency_from, currency_to, effective_time, id"),
+		@Index(name = "ix_currency_exchange_history_time", columnList = "effective_time, id") })
+public class CurrencyExchangeHistory {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "currency_from")
+	private String from;
+
+	@Column(name = "currency_to")
+	private String to;
+
+	private BigDecimal conversionMultiple;
+
+	@Column(name = "effective_time")
+	private Instant effectiveTime;
+
+	public CurrencyExchangeHistory() {
+
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getFrom() {
+		return from;
+	}
+
+	public String getTo() {
+		return to;
+	}
+
+	public BigDecimal getConversionMultiple() {
+		return conversionMultiple;
+	}
+
+	public Instant getEffectiveTime() {
+		return effectiveTime;
+	}
+}
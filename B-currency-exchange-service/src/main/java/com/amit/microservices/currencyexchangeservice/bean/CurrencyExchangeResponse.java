@@ -0,0 +1,13 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/*
+ * JSON returned by the exchange endpoints.
+ *
+ * The rate fields are unwrapped, so the body keeps the same shape as the old
+ * CurrencyExchange entity (id, from, to, conversionMultiple, environment) and the
+ * instance tag is only attached when the response is serialized.
+ */
+public record CurrencyExchangeResponse(@JsonUnwrapped ExchangeRate rate, String environment) {
+}
@@ -0,0 +1,5 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+// One from/to entry of a batch lookup
+public record CurrencyPairRequest(String from, String to) {
+}
@@ -0,0 +1,18 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.math.BigDecimal;
+
+/*
+ * Immutable, read-only view of a currency_exchange row.
+ *
+ * It is filled straight from a JPQL constructor projection, so reading rates never
+ * creates managed CurrencyExchange entities and nothing is left for Hibernate to
+ * dirty-check. Derived rates have no row, so their id is null.
+ */
+public record ExchangeRate(Long id, String from, String to, BigDecimal conversionMultiple, RateType rateType) {
+
+	// Used by the JPQL projection: everything read from the table is a direct rate
+	public ExchangeRate(Long id, String from, String to, BigDecimal conversionMultiple) {
+		this(id, from, to, conversionMultiple, RateType.DIRECT);
+	}
+}
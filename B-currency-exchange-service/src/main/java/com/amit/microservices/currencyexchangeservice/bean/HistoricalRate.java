@@ -0,0 +1,8 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// A rate as it was from effectiveTime until the next history entry of the same pair
+public record HistoricalRate(String from, String to, BigDecimal conversionMultiple, Instant effectiveTime) {
+}
@@ -0,0 +1,5 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+// Outcome of one bulk rate feed: rows read from the feed, and the distinct pairs it inserted or updated
+public record IngestionReport(long rows, long inserted, long updated, long elapsedMillis, long rowsPerSecond) {
+}
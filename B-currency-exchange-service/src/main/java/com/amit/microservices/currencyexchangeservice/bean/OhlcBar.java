@@ -0,0 +1,9 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Open/high/low/close and average of the ticks of one pair in [bucketStart, bucketStart + interval)
+public record OhlcBar(Instant bucketStart, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+		BigDecimal average, long ticks) {
+}
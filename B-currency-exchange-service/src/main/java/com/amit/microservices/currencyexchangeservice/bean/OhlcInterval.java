@@ -0,0 +1,18 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+// Bucket width of an OHLC query; buckets are aligned to UTC
+public enum OhlcInterval {
+	MINUTE(60_000L),
+	HOUR(3_600_000L),
+	DAY(86_400_000L);
+
+	private final long millis;
+
+	OhlcInterval(long millis) {
+		this.millis = millis;
+	}
+
+	public long millis() {
+		return millis;
+	}
+}
@@ -0,0 +1,8 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+public enum RateType {
+	// Stored as a row in currency_exchange
+	DIRECT,
+	// Calculated from stored rows (inverse of a stored pair or a cross rate through a pivot currency)
+	DERIVED
+}
@@ -0,0 +1,7 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+import java.math.BigDecimal;
+
+// One entry of a bulk rate feed
+public record RateUpdate(String from, String to, BigDecimal conversionMultiple) {
+}
@@ -0,0 +1,5 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+// Position of the read model in the rate change log; lag is the number of committed writes not yet served
+public record ReadModelStatus(long appliedOffset, long endOffset, long lag, long version) {
+}
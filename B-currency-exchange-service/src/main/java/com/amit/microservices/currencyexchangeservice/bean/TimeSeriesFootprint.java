@@ -0,0 +1,5 @@
+package com.amit.microservices.currencyexchangeservice.bean;
+
+// Memory used by the in-memory rate time series
+public record TimeSeriesFootprint(int pairs, long ticks, long compressedBlocks, long bytes, long bytesPerMillionTicks) {
+}
@@ -0,0 +1,33 @@
+package com.amit.microservices.currencyexchangeservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Binary alternatives to JSON, selected with the Accept header:
+ *   Accept: application/cbor
+ *   Accept: application/x-jackson-smile
+ *
+ * Both mappers come from Spring Boot's Jackson2ObjectMapperBuilder, so they follow the
+ * same Jackson settings as JSON. Spring Boot keeps these converters behind the JSON
+ * converter, so JSON stays the default when a client sends no Accept header or accepts anything.
+ */
+@Configuration
+public class BinaryContentNegotiationConfig {
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
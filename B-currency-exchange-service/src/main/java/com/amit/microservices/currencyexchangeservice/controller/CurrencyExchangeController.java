@@ -1,40 +1,131 @@
 package com.amit.microservices.currencyexchangeservice.controller;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletResponse;
 
-import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchange;
-import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeRepository;
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.BatchExchangeResponse;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchangeResponse;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyPairRequest;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.exception.CurrencyExchangeNotFoundException;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
 
 @RestController
 public class CurrencyExchangeController {
 	
 	@Autowired
-	private CurrencyExchangeRepository repository;
+	private CurrencyExchangeRateTable rateTable;
 	
 	@Autowired
 	private Environment environment;
 	
+	@Autowired
+	private ContentNegotiationManager contentNegotiationManager;
+	
+	@Value("${currency-exchange.batch.max-size:100}")
+	private int batchMaxSize;
+	
+	private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile"));
+	
+	// Port is only known once the server is up, so the tag is built on first use
+	private volatile String instanceTag;
+	
 	@GetMapping("/currency-exchange/from/{from}/to/{to}")
-	public CurrencyExchange retrieveExchangeValue(
+	public CurrencyExchangeResponse retrieveExchangeValue(
 			@PathVariable String from,
-			@PathVariable String to) {
-		CurrencyExchange currencyExchange 
-					= repository.findByFromAndTo(from, to);
+			@PathVariable String to,
+			NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		long pair = CurrencyPair.of(from, to);
+		
+		// Conditional GET: answer 304 from the table ETag before looking anything up or serializing.
+		// The ETag is read before the lookup, so it can never be newer than the body. The body
+		// carries the instance tag and is encoded as JSON, CBOR or Smile, so the ETag names both.
+		String tag = instanceTag();
+		request.getNativeResponse(HttpServletResponse.class).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		if (request.checkNotModified(rateTable.etag(tag + "-" + format(request)), rateTable.lastModified())) {
+			return null;
+		}
+		
+		ExchangeRate rate = rateTable.find(pair);
 		
-		if(currencyExchange ==null) {
-			throw new RuntimeException
-				("Unable to Find data for " + from + " to " + to);
+		if(rate ==null) {
+			throw new CurrencyExchangeNotFoundException(from, to);
 		}
 		
-		String port = environment.getProperty("local.server.port")+"_Reading-Values-From-H2-DB";
-		currencyExchange.setEnvironment(port);
+		return new CurrencyExchangeResponse(rate, tag);
 		
-		return currencyExchange;
+	}
+	
+	/*
+	 * Resolves many pairs in one call. All pairs are read from the same rate snapshot,
+	 * so a basket costs one HTTP round trip and no database queries.
+	 */
+	@PostMapping("/currency-exchange/batch")
+	public BatchExchangeResponse retrieveExchangeValues(@RequestBody List<CurrencyPairRequest> pairs) {
+		if (pairs.size() > batchMaxSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Batch of " + pairs.size() + " pairs exceeds the limit of " + batchMaxSize);
+		}
 		
+		String tag = instanceTag();
+		List<CurrencyExchangeResponse> rates = new ArrayList<>(pairs.size());
+		List<CurrencyPairRequest> notFound = new ArrayList<>();
+		for (CurrencyPairRequest pair : pairs) {
+			ExchangeRate rate = CurrencyPair.isValid(pair.from()) && CurrencyPair.isValid(pair.to())
+					? rateTable.find(CurrencyPair.of(pair.from(), pair.to()))
+					: null;
+			if (rate == null) {
+				notFound.add(pair);
+			} else {
+				rates.add(new CurrencyExchangeResponse(rate, tag));
+			}
+		}
+		return new BatchExchangeResponse(rates, notFound);
+	}
+	
+	/*
+	 * The format the response will be written in, picked the way the message converters
+	 * pick it: the first accepted type, by quality, that JSON, CBOR or Smile can produce,
+	 * trying JSON first.
+	 */
+	private String format(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+			for (MediaType producible : PRODUCIBLE) {
+				if (accepted.isCompatibleWith(producible)) {
+					return producible.getSubtype();
+				}
+			}
+		}
+		return MediaType.APPLICATION_JSON.getSubtype();
+	}
+	
+	private String instanceTag() {
+		String tag = instanceTag;
+		if (tag == null) {
+			tag = environment.getProperty("local.server.port")+"_Reading-Values-From-Rate-Table";
+			instanceTag = tag;
+		}
+		return tag;
 	}
 
 }
@@ -0,0 +1,133 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchange;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*
+ * Dumps the whole currency_exchange table as NDJSON (default) or CSV.
+ *
+ * Rows are read from a JDBC cursor, written and detached one at a time, and the
+ * response is flushed every FLUSH_EVERY rows. Heap usage therefore does not grow
+ * with the size of the table.
+ */
+@RestController
+public class CurrencyExchangeExportController {
+
+	private static final int FLUSH_EVERY = 1000;
+
+	private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+	@Autowired
+	private CurrencyExchangeRepository repository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ObjectWriter rowWriter;
+
+	private final TransactionTemplate readOnlyTransaction;
+
+	public CurrencyExchangeExportController(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+		// One JSON document per line; flushing after every row would turn each row into its own network write
+		this.rowWriter = objectMapper.writer()
+				.withRootValueSeparator("\n")
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+
+	@GetMapping("/currency-exchange/export")
+	public ResponseEntity<StreamingResponseBody> exportRates(@RequestParam(defaultValue = "ndjson") String format) {
+		boolean csv = "csv".equalsIgnoreCase(format);
+		if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format " + format);
+		}
+
+		// The body runs later on an async thread, so it opens its own transaction for the cursor
+		StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(status -> {
+			try (Stream<CurrencyExchange> rows = repository.streamAll()) {
+				if (csv) {
+					writeCsv(rows.iterator(), out);
+				} else {
+					writeNdjson(rows.iterator(), out);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		return ResponseEntity.ok()
+				.contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
+	private void writeNdjson(Iterator<CurrencyExchange> rows, OutputStream out) throws IOException {
+		JsonGenerator generator = rowWriter.createGenerator(out);
+		int written = 0;
+		while (rows.hasNext()) {
+			CurrencyExchange row = rows.next();
+			rowWriter.writeValue(generator, new ExchangeRate(row.getId(), row.getFrom(), row.getTo(),
+					row.getConversionMultiple()));
+			entityManager.detach(row);
+			if (++written % FLUSH_EVERY == 0) {
+				generator.flush();
+			}
+		}
+		if (written > 0) {
+			generator.writeRaw('\n');
+		}
+		generator.flush();
+	}
+
+	private void writeCsv(Iterator<CurrencyExchange> rows, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writer.write("id,currency_from,currency_to,conversion_multiple\n");
+		int written = 0;
+		while (rows.hasNext()) {
+			CurrencyExchange row = rows.next();
+			writer.write(String.valueOf(row.getId()));
+			writer.write(',');
+			writer.write(row.getFrom());
+			writer.write(',');
+			writer.write(row.getTo());
+			writer.write(',');
+			writer.write(row.getConversionMultiple() == null ? "" : row.getConversionMultiple().toPlainString());
+			writer.write('\n');
+			entityManager.detach(row);
+			if (++written % FLUSH_EVERY == 0) {
+				writer.flush();
+			}
+		}
+		writer.flush();
+	}
+}
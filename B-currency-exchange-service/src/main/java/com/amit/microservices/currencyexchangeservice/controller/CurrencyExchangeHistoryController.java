@@ -0,0 +1,44 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.amit.microservices.currencyexchangeservice.bean.HistoricalRate;
+import com.amit.microservices.currencyexchangeservice.exception.CurrencyExchangeNotFoundException;
+import com.amit.microservices.currencyexchangeservice.service.RateHistoryService;
+
+@RestController
+public class CurrencyExchangeHistoryController {
+
+	@Autowired
+	private RateHistoryService historyService;
+
+	// Rate in force at an instant, e.g. ?at=2026-01-31T10:15:30Z
+	@GetMapping("/currency-exchange/from/{from}/to/{to}/as-of")
+	public HistoricalRate retrieveExchangeValueAsOf(
+			@PathVariable String from,
+			@PathVariable String to,
+			@RequestParam Instant at) {
+		HistoricalRate rate = historyService.findAsOf(from, to, at);
+		if (rate == null) {
+			throw new CurrencyExchangeNotFoundException(from, to);
+		}
+		return rate;
+	}
+
+	// Every stored change of the pair with start <= effectiveTime < end
+	@GetMapping("/currency-exchange/from/{from}/to/{to}/history")
+	public List<HistoricalRate> retrieveExchangeHistory(
+			@PathVariable String from,
+			@PathVariable String to,
+			@RequestParam Instant start,
+			@RequestParam(required = false) Instant end) {
+		return historyService.findRange(from, to, start, end == null ? Instant.now() : end);
+	}
+}
@@ -0,0 +1,59 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.amit.microservices.currencyexchangeservice.bean.IngestionReport;
+import com.amit.microservices.currencyexchangeservice.bean.RateUpdate;
+import com.amit.microservices.currencyexchangeservice.service.RateIngestionService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+@RestController
+public class CurrencyExchangeIngestionController {
+
+	@Autowired
+	private RateIngestionService ingestionService;
+
+	private final ObjectReader rateUpdateReader;
+
+	public CurrencyExchangeIngestionController(ObjectMapper objectMapper) {
+		this.rateUpdateReader = objectMapper.readerFor(RateUpdate.class);
+	}
+
+	/*
+	 * Bulk upsert of rates. The body is either a JSON array or NDJSON (one rate per line):
+	 *   {"from":"USD","to":"INR","conversionMultiple":83.1}
+	 * It is parsed while it is being written to the database, so the feed is never held
+	 * in memory as a whole.
+	 */
+	@PostMapping(path = "/currency-exchange/ingest",
+			consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public IngestionReport ingestRates(InputStream body) {
+		try (MappingIterator<RateUpdate> feed = rateUpdateReader.readValues(body)) {
+			return ingestionService.ingest(feed);
+		} catch (IllegalArgumentException | RuntimeJsonMappingException | IOException e) {
+			// invalid rows, malformed JSON at the start of the body, or a body that could not be read
+			throw badRequest(e);
+		} catch (RuntimeException e) {
+			// MappingIterator wraps parse and read failures of later rows in a plain RuntimeException
+			if (e.getCause() instanceof IOException) {
+				throw badRequest(e);
+			}
+			throw e;
+		}
+	}
+
+	private static ResponseStatusException badRequest(Exception e) {
+		return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+	}
+}
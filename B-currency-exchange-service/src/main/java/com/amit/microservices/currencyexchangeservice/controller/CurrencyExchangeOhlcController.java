@@ -0,0 +1,43 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.OhlcBar;
+import com.amit.microservices.currencyexchangeservice.bean.OhlcInterval;
+import com.amit.microservices.currencyexchangeservice.bean.TimeSeriesFootprint;
+import com.amit.microservices.currencyexchangeservice.service.RateAggregationService;
+
+@RestController
+public class CurrencyExchangeOhlcController {
+
+	@Autowired
+	private RateAggregationService aggregationService;
+
+	// OHLC bars of a pair, e.g. ?interval=HOUR&start=2026-01-31T00:00:00Z (default: the last day)
+	@GetMapping("/currency-exchange/from/{from}/to/{to}/ohlc")
+	public List<OhlcBar> retrieveOhlc(
+			@PathVariable String from,
+			@PathVariable String to,
+			@RequestParam(defaultValue = "HOUR") OhlcInterval interval,
+			@RequestParam(required = false) Instant start,
+			@RequestParam(required = false) Instant end) {
+		Instant rangeEnd = end == null ? Instant.now() : end;
+		Instant rangeStart = start == null ? rangeEnd.minus(Duration.ofDays(1)) : start;
+		return aggregationService.ohlc(CurrencyPair.of(from, to), interval, rangeStart, rangeEnd);
+	}
+
+	// Memory used by the time series, including bytes per million ticks
+	@GetMapping("/currency-exchange/ohlc/footprint")
+	public TimeSeriesFootprint retrieveFootprint() {
+		return aggregationService.footprint();
+	}
+}
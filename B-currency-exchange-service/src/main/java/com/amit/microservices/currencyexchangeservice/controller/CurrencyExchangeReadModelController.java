@@ -0,0 +1,28 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.amit.microservices.currencyexchangeservice.bean.ReadModelStatus;
+import com.amit.microservices.currencyexchangeservice.service.ReadModelProjector;
+
+@RestController
+public class CurrencyExchangeReadModelController {
+
+	@Autowired
+	private ReadModelProjector projector;
+
+	// How far the in-memory read model is behind the committed writes
+	@GetMapping("/currency-exchange/read-model")
+	public ReadModelStatus retrieveStatus() {
+		return projector.status();
+	}
+
+	// Rebuilds the read model from the currency_exchange table
+	@PostMapping("/currency-exchange/read-model/rebuild")
+	public ReadModelStatus rebuild() {
+		return projector.rebuild();
+	}
+}
@@ -0,0 +1,41 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
+import com.amit.microservices.currencyexchangeservice.service.RateSubscriptionService;
+
+@RestController
+public class CurrencyExchangeSubscriptionController {
+
+	@Autowired
+	private CurrencyExchangeRateTable rateTable;
+
+	@Autowired
+	private RateSubscriptionService subscriptionService;
+
+	// Server-Sent Events stream of rate updates, e.g. ?pairs=USD-INR,EUR-INR (no pairs = everything)
+	@GetMapping(path = "/currency-exchange/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter subscribe(@RequestParam(required = false) List<String> pairs) {
+		Set<Long> filter = new HashSet<>();
+		if (pairs != null) {
+			pairs.forEach(pair -> filter.add(CurrencyPair.parse(pair)));
+		}
+
+		List<ExchangeRate> current = new ArrayList<>();
+		rateTable.forEach(current::add);
+		return subscriptionService.subscribe(filter, current);
+	}
+}
@@ -0,0 +1,32 @@
+package com.amit.microservices.currencyexchangeservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.amit.microservices.currencycommon.exception.InvalidCurrencyCodeException;
+
+@RestControllerAdvice
+public class CurrencyExchangeExceptionHandler {
+
+	// Rendered directly as a 404 problem detail, without going through the /error page
+	@ExceptionHandler(CurrencyExchangeNotFoundException.class)
+	@ResponseStatus(HttpStatus.NOT_FOUND)
+	public ProblemDetail handleNotFound(CurrencyExchangeNotFoundException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+	}
+
+	@ExceptionHandler(IngestionConflictException.class)
+	@ResponseStatus(HttpStatus.CONFLICT)
+	public ProblemDetail handleIngestionConflict(IngestionConflictException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+	}
+
+	@ExceptionHandler(InvalidCurrencyCodeException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ProblemDetail handleInvalidCurrencyCode(InvalidCurrencyCodeException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+}
@@ -0,0 +1,16 @@
+package com.amit.microservices.currencyexchangeservice.exception;
+
+/*
+ * Thrown when no direct or derived rate exists for a pair.
+ *
+ * An unknown pair is an expected client error, not a bug, so the exception skips
+ * stack trace capture (the expensive part of creating an exception) and suppression.
+ */
+public class CurrencyExchangeNotFoundException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CurrencyExchangeNotFoundException(String from, String to) {
+		super("Unable to Find data for " + from + " to " + to, null, false, false);
+	}
+}
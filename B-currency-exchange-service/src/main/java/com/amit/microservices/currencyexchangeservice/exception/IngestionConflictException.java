@@ -0,0 +1,11 @@
+package com.amit.microservices.currencyexchangeservice.exception;
+
+// Thrown when this instance is not the one that may apply a rate feed; answered with 409
+public class IngestionConflictException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IngestionConflictException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,39 @@
+package com.amit.microservices.currencyexchangeservice.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchangeHistory;
+import com.amit.microservices.currencyexchangeservice.bean.HistoricalRate;
+
+public interface CurrencyExchangeHistoryRepository extends JpaRepository<CurrencyExchangeHistory, Long> {
+
+	// Newest first; called with a page size of 1 to get the rate in force at asOf.
+	// The order spells out every index column, so H2 reads one index entry instead of sorting the pair's rows
+	@Query("select new com.amit.microservices.currencyexchangeservice.bean.HistoricalRate(h.from, h.to, h.conversionMultiple, h.effectiveTime)"
+			+ " from CurrencyExchangeHistory h"
+			+ " where h.from = :from and h.to = :to and h.effectiveTime <= :asOf"
+			+ " order by h.from desc, h.to desc, h.effectiveTime desc, h.id desc")
+	List<HistoricalRate> findAsOf(@Param("from") String from, @Param("to") String to, @Param("asOf") Instant asOf,
+			Pageable pageable);
+
+	// Newest first, whatever its effective time; called with a page size of 1
+	@Query("select new com.amit.microservices.currencyexchangeservice.bean.HistoricalRate(h.from, h.to, h.conversionMultiple, h.effectiveTime)"
+			+ " from CurrencyExchangeHistory h"
+			+ " where h.from = :from and h.to = :to"
+			+ " order by h.from desc, h.to desc, h.effectiveTime desc, h.id desc")
+	List<HistoricalRate> findLatest(@Param("from") String from, @Param("to") String to, Pageable pageable);
+
+	// Entries with start <= effectiveTime < end, oldest first
+	@Query("select new com.amit.microservices.currencyexchangeservice.bean.HistoricalRate(h.from, h.to, h.conversionMultiple, h.effectiveTime)"
+			+ " from CurrencyExchangeHistory h"
+			+ " where h.from = :from and h.to = :to and h.effectiveTime >= :start and h.effectiveTime < :end"
+			+ " order by h.effectiveTime")
+	List<HistoricalRate> findRange(@Param("from") String from, @Param("to") String to, @Param("start") Instant start,
+			@Param("end") Instant end, Pageable pageable);
+}
@@ -1,9 +1,34 @@
 package com.amit.microservices.currencyexchangeservice.repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchange;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+import jakarta.persistence.QueryHint;
 
 public interface CurrencyExchangeRepository extends JpaRepository<CurrencyExchange, Long> {
 	CurrencyExchange findByFromAndTo(String from, String to);
+
+	// Read path: constructor projection, no managed entities in the persistence context
+	@Query("select new com.amit.microservices.currencyexchangeservice.bean.ExchangeRate(c.id, c.from, c.to, c.conversionMultiple) from CurrencyExchange c order by c.id")
+	List<ExchangeRate> findAllRates();
+
+	@Query("select new com.amit.microservices.currencyexchangeservice.bean.ExchangeRate(c.id, c.from, c.to, c.conversionMultiple) from CurrencyExchange c where c.from = :from and c.to = :to")
+	ExchangeRate findRate(@Param("from") String from, @Param("to") String to);
+
+	// Export path: rows are fetched from the JDBC cursor in chunks instead of loading the whole table.
+	// Must be called inside a transaction and the stream must be closed by the caller.
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select c from CurrencyExchange c order by c.id")
+	Stream<CurrencyExchange> streamAll();
 }
@@ -0,0 +1,184 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.RateType;
+
+/*
+ * Dense from x to matrix of every rate we can answer, indexed by currency ordinal.
+ *
+ * Built once from the stored (direct) rates:
+ *   1. direct rates are copied in as they are
+ *   2. a missing pair whose reverse is stored gets the inverse (EUR->USD = 1 / USD->EUR)
+ *   3. a pair that is still missing gets a cross rate through a pivot currency using
+ *      the rates from steps 1 and 2 (USD->EUR = USD->INR * INR->EUR)
+ *
+ * Currency ordinals are kept in an array indexed by the packed currency code
+ * (CurrencyPair), so a lookup is two array reads for the ordinals and one for the
+ * rate, whether the pair is stored or derived, with no hashing. The matrix is never
+ * modified after it is built.
+ *
+ * On a sharded instance only the rows of the owned base (from) currencies are kept;
+ * the other rows are still used as legs while deriving, then dropped.
+ */
+final class CrossRateMatrix {
+
+	private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+	// ordinal + 1 for every currency in the matrix, indexed by packed code; 0 = not present
+	private final short[] ordinalByCode;
+	private final ExchangeRate[][] rates;
+	private final int pairCount;
+
+	private CrossRateMatrix(short[] ordinalByCode, ExchangeRate[][] rates, int pairCount) {
+		this.ordinalByCode = ordinalByCode;
+		this.rates = rates;
+		this.pairCount = pairCount;
+	}
+
+	static CrossRateMatrix empty() {
+		return new CrossRateMatrix(new short[CurrencyPair.CODE_SPACE], new ExchangeRate[0][0], 0);
+	}
+
+	static CrossRateMatrix build(List<ExchangeRate> directRates) {
+		return build(directRates, null);
+	}
+
+	/*
+	 * ownedFrom is indexed by packed currency code; null keeps every row.
+	 * Rows whose currency codes are not valid ISO-4217 style codes are ignored.
+	 */
+	static CrossRateMatrix build(List<ExchangeRate> directRates, boolean[] ownedFrom) {
+		List<ExchangeRate> usable = new ArrayList<>(directRates.size());
+		Map<String, Integer> ordinals = new HashMap<>();
+		for (ExchangeRate rate : directRates) {
+			if (CurrencyPair.isValid(rate.from()) && CurrencyPair.isValid(rate.to())) {
+				usable.add(rate);
+				ordinals.putIfAbsent(rate.from(), ordinals.size());
+				ordinals.putIfAbsent(rate.to(), ordinals.size());
+			}
+		}
+		int size = ordinals.size();
+		String[] codes = new String[size];
+		short[] ordinalByCode = new short[CurrencyPair.CODE_SPACE];
+		ordinals.forEach((code, ordinal) -> {
+			codes[ordinal] = code;
+			ordinalByCode[CurrencyPair.encode(code)] = (short) (ordinal + 1);
+		});
+
+		ExchangeRate[][] rates = new ExchangeRate[size][size];
+		for (ExchangeRate rate : usable) {
+			rates[ordinals.get(rate.from())][ordinals.get(rate.to())] = rate;
+		}
+
+		// Inverses of stored pairs
+		for (int from = 0; from < size; from++) {
+			for (int to = 0; to < size; to++) {
+				ExchangeRate reverse = rates[to][from];
+				if (from != to && rates[from][to] == null && isUsable(reverse) && reverse.rateType() == RateType.DIRECT) {
+					rates[from][to] = derived(codes[from], codes[to],
+							BigDecimal.ONE.divide(reverse.conversionMultiple(), PRECISION));
+				}
+			}
+		}
+
+		// Cross rates through a single pivot, using only direct and inverse rates as legs
+		ExchangeRate[][] legs = new ExchangeRate[size][];
+		for (int i = 0; i < size; i++) {
+			legs[i] = rates[i].clone();
+		}
+		for (int from = 0; from < size; from++) {
+			for (int to = 0; to < size; to++) {
+				if (from == to || rates[from][to] != null) {
+					continue;
+				}
+				for (int pivot = 0; pivot < size; pivot++) {
+					ExchangeRate first = legs[from][pivot];
+					ExchangeRate second = legs[pivot][to];
+					if (isUsable(first) && isUsable(second)) {
+						rates[from][to] = derived(codes[from], codes[to],
+								first.conversionMultiple().multiply(second.conversionMultiple(), PRECISION));
+						break;
+					}
+				}
+			}
+		}
+
+		if (ownedFrom != null) {
+			for (int from = 0; from < size; from++) {
+				if (!ownedFrom[CurrencyPair.encode(codes[from])]) {
+					rates[from] = null;
+				}
+			}
+		}
+
+		int pairCount = 0;
+		for (ExchangeRate[] row : rates) {
+			if (row == null) {
+				continue;
+			}
+			for (ExchangeRate rate : row) {
+				if (rate != null) {
+					pairCount++;
+				}
+			}
+		}
+		return new CrossRateMatrix(ordinalByCode, rates, pairCount);
+	}
+
+	// pair is a packed CurrencyPair key
+	ExchangeRate find(long pair) {
+		int fromOrdinal = ordinalByCode[CurrencyPair.from(pair)] - 1;
+		int toOrdinal = ordinalByCode[CurrencyPair.to(pair)] - 1;
+		if (fromOrdinal < 0 || toOrdinal < 0 || rates[fromOrdinal] == null) {
+			return null;
+		}
+		return rates[fromOrdinal][toOrdinal];
+	}
+
+	int pairCount() {
+		return pairCount;
+	}
+
+	void forEach(Consumer<ExchangeRate> action) {
+		for (ExchangeRate[] row : rates) {
+			if (row == null) {
+				continue;
+			}
+			for (ExchangeRate rate : row) {
+				if (rate != null) {
+					action.accept(rate);
+				}
+			}
+		}
+	}
+
+	// Rates that are new or have a different value compared to an older matrix
+	List<ExchangeRate> changedSince(CrossRateMatrix older) {
+		List<ExchangeRate> changed = new ArrayList<>();
+		forEach(rate -> {
+			ExchangeRate previous = older.find(CurrencyPair.of(rate.from(), rate.to()));
+			if (previous == null || previous.rateType() != rate.rateType()
+					|| previous.conversionMultiple().compareTo(rate.conversionMultiple()) != 0) {
+				changed.add(rate);
+			}
+		});
+		return changed;
+	}
+
+	private static boolean isUsable(ExchangeRate rate) {
+		return rate != null && rate.conversionMultiple() != null && rate.conversionMultiple().signum() > 0;
+	}
+
+	private static ExchangeRate derived(String from, String to, BigDecimal conversionMultiple) {
+		return new ExchangeRate(null, from, to, conversionMultiple, RateType.DERIVED);
+	}
+}
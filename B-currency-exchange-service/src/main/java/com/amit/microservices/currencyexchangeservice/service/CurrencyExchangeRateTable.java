@@ -0,0 +1,266 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Read optimized copy of the currency_exchange table.
+ *
+ * All rows are loaded once into an immutable cross-rate matrix (the snapshot), which
+ * also holds the inverse and pivot-derived rates for pairs that are not stored.
+ * Lookups only read the current snapshot reference, so there is no locking and no
+ * JPA work per request. When rates change a completely new snapshot is built and
+ * swapped in with a single volatile write; readers see either the old or the new
+ * table, never a mix.
+ *
+ * This is the read model of the service: reload() rebuilds it from the store, and
+ * apply() folds in rates written since, as they arrive from the RateChangeLog,
+ * without touching the database.
+ */
+@Service
+public class CurrencyExchangeRateTable implements SmartInitializingSingleton {
+
+	private Logger logger = LoggerFactory.getLogger(CurrencyExchangeRateTable.class);
+
+	private final CurrencyExchangeRepository repository;
+
+	private final OffHeapRateStore offHeapStore;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter fallbacks;
+
+	// Base currencies this instance keeps in memory, indexed by packed code; null = all of them
+	private final boolean[] ownedBaseCurrencies;
+
+	// Off-shard rates read from the database, empty for pairs it does not have; dropped on every swap
+	private final Cache<Long, Optional<ExchangeRate>> offShardRates;
+
+	// Stored (direct) rows of the current snapshot in id order, keyed by pair; only touched under the lock
+	private Map<Long, ExchangeRate> directRows = new LinkedHashMap<>();
+
+	private volatile Snapshot snapshot = new Snapshot(CrossRateMatrix.empty(), System.currentTimeMillis(), 0, System.currentTimeMillis(), "\"0\"");
+
+	public CurrencyExchangeRateTable(CurrencyExchangeRepository repository, OffHeapRateStore offHeapStore,
+			ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+			@Value("${currency-exchange.shard.base-currencies:}") List<String> baseCurrencies,
+			@Value("${currency-exchange.shard.off-shard-cache.max-size:10000}") long offShardCacheSize,
+			@Value("${currency-exchange.shard.off-shard-cache.expire-after-write:60s}") Duration offShardCacheExpiry) {
+		this.repository = repository;
+		this.offHeapStore = offHeapStore;
+		this.eventPublisher = eventPublisher;
+		this.ownedBaseCurrencies = ownedBaseCurrencies(baseCurrencies);
+		this.offShardRates = Caffeine.newBuilder()
+				.maximumSize(offShardCacheSize)
+				.expireAfterWrite(offShardCacheExpiry)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, offShardRates, "currency-exchange-off-shard-rates");
+		this.hits = Counter.builder("currency.exchange.rate.table.lookups")
+				.description("Lookups served from the in-memory rate table")
+				.tag("result", "hit")
+				.register(meterRegistry);
+		this.misses = Counter.builder("currency.exchange.rate.table.lookups")
+				.description("Lookups served from the in-memory rate table")
+				.tag("result", "miss")
+				.register(meterRegistry);
+		this.fallbacks = Counter.builder("currency.exchange.rate.table.lookups")
+				.description("Lookups served from the in-memory rate table")
+				.tag("result", "fallback")
+				.register(meterRegistry);
+		Gauge.builder("currency.exchange.rate.table.snapshot.age", this, CurrencyExchangeRateTable::snapshotAgeSeconds)
+				.description("Seconds since the current rate snapshot was loaded")
+				.baseUnit("seconds")
+				.register(meterRegistry);
+		Gauge.builder("currency.exchange.rate.table.size", this, table -> table.snapshot.rates().pairCount())
+				.description("Number of currency pairs (direct and derived) in the current rate snapshot")
+				.register(meterRegistry);
+	}
+
+	// Warm the table after data.sql has run but before Tomcat starts taking requests
+	@Override
+	public void afterSingletonsInstantiated() {
+		reload();
+	}
+
+	// Single writer: concurrent reloads would otherwise race to publish their snapshot
+	public synchronized void reload() {
+		long start = System.nanoTime();
+		// Off-heap readers take the rates published by the writer instance on this host, unless the file is unreadable
+		List<ExchangeRate> rows = offHeapStore.isReader() ? offHeapStore.readDirectRates() : null;
+		if (rows == null) {
+			rows = repository.findAllRates();
+		}
+
+		Map<Long, ExchangeRate> loaded = new LinkedHashMap<>();
+		for (ExchangeRate row : rows) {
+			if (CurrencyPair.isValid(row.from()) && CurrencyPair.isValid(row.to())) {
+				loaded.put(CurrencyPair.of(row.from(), row.to()), row);
+			}
+		}
+		directRows = loaded;
+		swap(rows, start);
+	}
+
+	/*
+	 * Folds written rates into the table. A rate without an id updates a stored pair and
+	 * keeps that pair's id; new pairs carry the id they were inserted with, which is
+	 * higher than every existing one, so the rows stay in id order.
+	 */
+	public synchronized void apply(List<ExchangeRate> written) {
+		long start = System.nanoTime();
+		for (ExchangeRate rate : written) {
+			long pair = CurrencyPair.of(rate.from(), rate.to());
+			Long id = rate.id();
+			if (id == null) {
+				ExchangeRate stored = directRows.get(pair);
+				id = stored == null ? null : stored.id();
+			}
+			directRows.put(pair, new ExchangeRate(id, rate.from(), rate.to(), rate.conversionMultiple()));
+		}
+		swap(new ArrayList<>(directRows.values()), start);
+	}
+
+	private void swap(List<ExchangeRate> rows, long start) {
+		Snapshot previous = snapshot;
+		CrossRateMatrix rates = CrossRateMatrix.build(rows, ownedBaseCurrencies);
+		List<ExchangeRate> changed = rates.changedSince(previous.rates());
+
+		// The version only moves when a rate really changed, so clients holding its ETag keep getting 304s
+		long now = System.currentTimeMillis();
+		snapshot = changed.isEmpty()
+				? new Snapshot(rates, now, previous.version(), previous.lastModified(), previous.etag())
+				: new Snapshot(rates, now, previous.version() + 1, now, etag(rows));
+
+		if (!changed.isEmpty()) {
+			eventPublisher.publishEvent(new ExchangeRatesChangedEvent(changed));
+		}
+		// changed only covers owned pairs, so any write may have touched a cached off-shard row
+		offShardRates.invalidateAll();
+
+		logger.info("Loaded {} stored rates ({} pairs with derived rates) into the rate table in {} ms",
+				rows.size(), rates.pairCount(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/*
+	 * Returns the direct or derived rate for a packed CurrencyPair key, or null.
+	 *
+	 * A sharded instance only keeps its own base currencies in memory. The gateway sends
+	 * other pairs elsewhere, but a request that still arrives here (a direct call, or
+	 * during a rebalance) is answered with the stored rate from the database. Those
+	 * answers, misses included, go through a small bounded cache so repeated off-shard
+	 * lookups do not turn into one query per request again.
+	 */
+	public ExchangeRate find(long pair) {
+		ExchangeRate rate = snapshot.rates().find(pair);
+		if (rate != null) {
+			hits.increment();
+			return rate;
+		}
+		if (ownedBaseCurrencies != null && !ownedBaseCurrencies[CurrencyPair.from(pair)]) {
+			fallbacks.increment();
+			return offShardRates.get(pair, this::findStoredRate).orElse(null);
+		}
+		misses.increment();
+		return null;
+	}
+
+	private Optional<ExchangeRate> findStoredRate(long pair) {
+		return Optional.ofNullable(repository.findRate(CurrencyPair.decode(CurrencyPair.from(pair)),
+				CurrencyPair.decode(CurrencyPair.to(pair))));
+	}
+
+	// Epoch millis of the last reload, whether or not it changed anything
+	public long loadedAt() {
+		return snapshot.loadedAt();
+	}
+
+	// Incremented every time a reload changes at least one rate
+	public long version() {
+		return snapshot.version();
+	}
+
+	// Epoch millis of the last reload that changed a rate
+	public long lastModified() {
+		return snapshot.lastModified();
+	}
+
+	/*
+	 * Strong ETag of the whole table. It is a hash of the stored rows rather than the
+	 * version counter, so every instance and every restart serving the same rates hands
+	 * out the same tag.
+	 */
+	public String etag() {
+		return snapshot.etag();
+	}
+
+	/*
+	 * The table ETag qualified with whatever else goes into a response body, e.g. the
+	 * instance tag, so two bodies that differ never share a strong ETag.
+	 */
+	public String etag(String variant) {
+		String etag = snapshot.etag();
+		return etag.substring(0, etag.length() - 1) + "-" + variant + "\"";
+	}
+
+	// Every rate in the current snapshot, direct and derived
+	public void forEach(Consumer<ExchangeRate> action) {
+		snapshot.rates().forEach(action);
+	}
+
+	private static boolean[] ownedBaseCurrencies(List<String> baseCurrencies) {
+		if (baseCurrencies == null || baseCurrencies.stream().allMatch(String::isBlank)) {
+			return null;
+		}
+		boolean[] owned = new boolean[CurrencyPair.CODE_SPACE];
+		for (String code : baseCurrencies) {
+			if (!code.isBlank()) {
+				owned[CurrencyPair.encode(CurrencyPair.normalize(code.trim()))] = true;
+			}
+		}
+		return owned;
+	}
+
+	private static String etag(List<ExchangeRate> rows) {
+		long hash = 17;
+		for (ExchangeRate row : rows) {
+			hash = 31 * hash + (row.id() == null ? 0 : row.id());
+			hash = 31 * hash + row.from().hashCode();
+			hash = 31 * hash + row.to().hashCode();
+			hash = 31 * hash + row.conversionMultiple().stripTrailingZeros().hashCode();
+		}
+		return "\"" + Long.toHexString(hash) + "\"";
+	}
+
+	private double snapshotAgeSeconds() {
+		return (System.currentTimeMillis() - snapshot.loadedAt()) / 1000.0;
+	}
+
+	private record Snapshot(CrossRateMatrix rates, long loadedAt, long version, long lastModified, String etag) {
+	}
+}
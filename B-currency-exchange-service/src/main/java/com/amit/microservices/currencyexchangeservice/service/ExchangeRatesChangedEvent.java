@@ -0,0 +1,9 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.util.List;
+
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+// Published by the rate table after a new snapshot is swapped in, with the rates that are new or changed
+public record ExchangeRatesChangedEvent(List<ExchangeRate> changed) {
+}
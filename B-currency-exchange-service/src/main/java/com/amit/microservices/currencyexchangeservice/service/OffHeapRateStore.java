@@ -0,0 +1,290 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.RateType;
+
+/*
+ * Optional rate table in a memory-mapped file, shared by every exchange-service JVM
+ * on a host (currency-exchange.offheap.mode):
+ *   off    - not used (default)
+ *   writer - this instance loads rates from its database as usual and publishes every
+ *            change into the file
+ *   reader - this instance builds its rate table from the file instead of its own
+ *            database, so a new instance starts warm with the current rates
+ *
+ * Layout (all fields are 8 byte little-endian longs):
+ *   header  0 magic | 8 slot count | 16 generation | 24..63 reserved
+ *   slot i  at 64 + i * 48: seq | pair | unscaled value | id | scale | rate type
+ *
+ * Slots form an open-addressing hash table keyed by the packed CurrencyPair, with
+ * linear probing; a pair never moves once it has a slot. There is exactly one writer.
+ * Each slot is guarded by a seqlock: the writer makes seq odd, writes the fields and
+ * makes seq even again; readers retry while seq is odd or changed during their read,
+ * so readers never lock and never block the writer. generation is bumped after every
+ * publish so readers can tell cheaply that something changed.
+ *
+ * A writer that dies in the middle of a slot leaves its seq odd. Readers only retry a
+ * slot for READ_TIMEOUT_NANOS, after which readDirectRates gives up and the rate table
+ * loads from the database instead. A writer reopening the file makes such slots even
+ * again; their fields are rewritten by the full publish of its first reload.
+ */
+@Service
+public class OffHeapRateStore {
+
+	private static final long MAGIC = 0x4658524154455331L; // "FXRATES1"
+
+	private static final int HEADER_SIZE = 64;
+	private static final int SLOT_SIZE = 48;
+
+	private static final int SLOT_COUNT_OFFSET = 8;
+	private static final int GENERATION_OFFSET = 16;
+
+	private static final int SEQ = 0;
+	private static final int PAIR = 8;
+	private static final int VALUE = 16;
+	private static final int ID = 24;
+	private static final int SCALE = 32;
+	private static final int TYPE = 40;
+
+	private static final long NO_ID = Long.MIN_VALUE;
+
+	// A slot write takes nanoseconds; a slot odd for this long belongs to a dead writer
+	static final long READ_TIMEOUT_NANOS = 10_000_000L;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private Logger logger = LoggerFactory.getLogger(OffHeapRateStore.class);
+
+	private final String mode;
+
+	private final Path path;
+
+	private final int configuredSlots;
+
+	private volatile MappedByteBuffer buffer;
+
+	private int slots;
+
+	public OffHeapRateStore(
+			@Value("${currency-exchange.offheap.mode:off}") String mode,
+			@Value("${currency-exchange.offheap.path:${java.io.tmpdir}/currency-exchange-rates.dat}") String path,
+			@Value("${currency-exchange.offheap.slots:65536}") int slots) {
+		this.mode = mode.toLowerCase(Locale.ROOT);
+		this.path = Path.of(path);
+		this.configuredSlots = Integer.highestOneBit(Math.max(slots, 16) - 1) << 1;
+		if (isWriter()) {
+			openForWriting();
+		}
+	}
+
+	public boolean isWriter() {
+		return "writer".equals(mode);
+	}
+
+	public boolean isReader() {
+		return "reader".equals(mode);
+	}
+
+	// Bumped by the writer after every publish; -1 while a reader has no file to read yet
+	public long generation() {
+		MappedByteBuffer mapped = readerBuffer();
+		return mapped == null ? -1 : (long) LONGS.getAcquire(mapped, GENERATION_OFFSET);
+	}
+
+	@EventListener
+	public void onRatesChanged(ExchangeRatesChangedEvent event) {
+		if (isWriter()) {
+			publish(event.changed());
+		}
+	}
+
+	/*
+	 * Stored (direct) rates in the file; the reader's cross-rate matrix derives the rest.
+	 * Null when a slot stayed locked past READ_TIMEOUT_NANOS, so the caller can fall back
+	 * to the database.
+	 */
+	public List<ExchangeRate> readDirectRates() {
+		List<ExchangeRate> rates = new ArrayList<>();
+		MappedByteBuffer mapped = readerBuffer();
+		if (mapped == null) {
+			return rates;
+		}
+		long[] fields = new long[TYPE / 8 + 1];
+		for (int slot = 0; slot < slots; slot++) {
+			if (!readSlot(mapped, slot, fields)) {
+				logger.warn("Slot {} of off-heap rate store {} is stuck mid-write, reading rates from the database", slot,
+						path);
+				return null;
+			}
+			if (fields[PAIR / 8] != 0 && fields[TYPE / 8] == RateType.DIRECT.ordinal()) {
+				rates.add(toRate(fields));
+			}
+		}
+		return rates;
+	}
+
+	private synchronized void publish(List<ExchangeRate> changed) {
+		MappedByteBuffer mapped = buffer;
+		int mask = slots - 1;
+		for (ExchangeRate rate : changed) {
+			BigDecimal value = rate.conversionMultiple();
+			if (value.precision() > 18) {
+				value = value.round(MathContext.DECIMAL64);
+			}
+			long pair = CurrencyPair.of(rate.from(), rate.to());
+			int slot = findSlotForWrite(mapped, pair, mask);
+			if (slot < 0) {
+				logger.error("Off-heap rate store {} is full ({} slots), dropping {}", path, slots, rate);
+				continue;
+			}
+			int base = HEADER_SIZE + slot * SLOT_SIZE;
+			long seq = (long) LONGS.get(mapped, base + SEQ);
+			LONGS.setOpaque(mapped, base + SEQ, seq + 1);
+			VarHandle.storeStoreFence();
+			LONGS.set(mapped, base + PAIR, pair);
+			LONGS.set(mapped, base + VALUE, value.unscaledValue().longValueExact());
+			LONGS.set(mapped, base + ID, rate.id() == null ? NO_ID : rate.id());
+			LONGS.set(mapped, base + SCALE, (long) value.scale());
+			LONGS.set(mapped, base + TYPE, (long) rate.rateType().ordinal());
+			LONGS.setRelease(mapped, base + SEQ, seq + 2);
+		}
+		long generation = (long) LONGS.get(mapped, GENERATION_OFFSET);
+		LONGS.setRelease(mapped, GENERATION_OFFSET, generation + 1);
+	}
+
+	private int findSlotForWrite(MappedByteBuffer mapped, long pair, int mask) {
+		for (int probe = 0, slot = home(pair, mask); probe < slots; probe++, slot = (slot + 1) & mask) {
+			long slotPair = (long) LONGS.get(mapped, HEADER_SIZE + slot * SLOT_SIZE + PAIR);
+			if (slotPair == 0 || slotPair == pair) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	// Seqlock read of one slot into fields (indexed by field offset / 8); false when it stays locked
+	private static boolean readSlot(MappedByteBuffer mapped, int slot, long[] fields) {
+		int base = HEADER_SIZE + slot * SLOT_SIZE;
+		long deadline = 0;
+		while (true) {
+			long before = (long) LONGS.getAcquire(mapped, base + SEQ);
+			if ((before & 1) == 0) {
+				for (int offset = PAIR; offset <= TYPE; offset += 8) {
+					fields[offset / 8] = (long) LONGS.get(mapped, base + offset);
+				}
+				VarHandle.loadLoadFence();
+				long after = (long) LONGS.getOpaque(mapped, base + SEQ);
+				if (before == after) {
+					return true;
+				}
+			}
+			if (deadline == 0) {
+				deadline = System.nanoTime() + READ_TIMEOUT_NANOS;
+			} else if (System.nanoTime() - deadline > 0) {
+				return false;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	private static ExchangeRate toRate(long[] fields) {
+		long pair = fields[PAIR / 8];
+		long id = fields[ID / 8];
+		return new ExchangeRate(id == NO_ID ? null : id,
+				CurrencyPair.decode(CurrencyPair.from(pair)),
+				CurrencyPair.decode(CurrencyPair.to(pair)),
+				BigDecimal.valueOf(fields[VALUE / 8], (int) fields[SCALE / 8]),
+				RateType.values()[(int) fields[TYPE / 8]]);
+	}
+
+	private static int home(long pair, int mask) {
+		return (int) ((pair * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	private void openForWriting() {
+		long size = HEADER_SIZE + (long) configuredSlots * SLOT_SIZE;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			boolean sameLayout = (long) LONGS.get(mapped, 0) == MAGIC
+					&& (long) LONGS.get(mapped, SLOT_COUNT_OFFSET) == configuredSlots;
+			if (!sameLayout) {
+				for (int offset = 0; offset < size; offset += 8) {
+					LONGS.set(mapped, offset, 0L);
+				}
+				LONGS.set(mapped, SLOT_COUNT_OFFSET, (long) configuredSlots);
+				LONGS.setRelease(mapped, 0, MAGIC);
+			} else {
+				int repaired = 0;
+				for (int slot = 0; slot < configuredSlots; slot++) {
+					int base = HEADER_SIZE + slot * SLOT_SIZE;
+					long seq = (long) LONGS.get(mapped, base + SEQ);
+					if ((seq & 1) != 0) {
+						LONGS.setRelease(mapped, base + SEQ, seq + 1);
+						repaired++;
+					}
+				}
+				if (repaired > 0) {
+					logger.warn("Unlocked {} slots of off-heap rate store {} left mid-write by a previous writer", repaired,
+							path);
+				}
+			}
+			slots = configuredSlots;
+			buffer = mapped;
+			logger.info("Publishing rates to off-heap store {} ({} slots)", path, slots);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to map off-heap rate store " + path, e);
+		}
+	}
+
+	// Readers map the file once it exists and has been initialized by the writer
+	private MappedByteBuffer readerBuffer() {
+		MappedByteBuffer mapped = buffer;
+		if (mapped != null || !isReader()) {
+			return mapped;
+		}
+		synchronized (this) {
+			if (buffer == null && Files.exists(path)) {
+				try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+					if (channel.size() >= HEADER_SIZE) {
+						MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+						if ((long) LONGS.getAcquire(header, 0) == MAGIC) {
+							int fileSlots = (int) (long) LONGS.get(header, SLOT_COUNT_OFFSET);
+							MappedByteBuffer whole = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+									HEADER_SIZE + (long) fileSlots * SLOT_SIZE);
+							slots = fileSlots;
+							buffer = whole;
+							logger.info("Reading rates from off-heap store {} ({} slots)", path, slots);
+						}
+					}
+				} catch (IOException e) {
+					logger.warn("Unable to map off-heap rate store {}: {}", path, e.getMessage());
+				}
+			}
+			return buffer;
+		}
+	}
+}
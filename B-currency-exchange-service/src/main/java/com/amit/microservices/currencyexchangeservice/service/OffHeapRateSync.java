@@ -0,0 +1,32 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// In off-heap reader mode, reloads the rate table whenever the writer publishes a new generation
+@Component
+public class OffHeapRateSync {
+
+	private final OffHeapRateStore offHeapStore;
+
+	private final CurrencyExchangeRateTable rateTable;
+
+	private long lastGeneration = -1;
+
+	public OffHeapRateSync(OffHeapRateStore offHeapStore, CurrencyExchangeRateTable rateTable) {
+		this.offHeapStore = offHeapStore;
+		this.rateTable = rateTable;
+	}
+
+	@Scheduled(fixedDelayString = "${currency-exchange.offheap.poll-interval:1000}")
+	public void poll() {
+		if (!offHeapStore.isReader()) {
+			return;
+		}
+		long generation = offHeapStore.generation();
+		if (generation != lastGeneration) {
+			lastGeneration = generation;
+			rateTable.reload();
+		}
+	}
+}
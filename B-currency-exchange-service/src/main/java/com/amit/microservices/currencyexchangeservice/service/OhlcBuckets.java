@@ -0,0 +1,88 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.amit.microservices.currencyexchangeservice.bean.OhlcBar;
+
+// Running OHLC aggregates per time bucket; values are longs scaled by RateTimeSeries.VALUE_SCALE
+final class OhlcBuckets {
+
+	private final long bucketMillis;
+
+	private final Map<Long, Bucket> buckets = new TreeMap<>();
+
+	OhlcBuckets(long bucketMillis) {
+		this.bucketMillis = bucketMillis;
+	}
+
+	boolean sameBucket(long firstTime, long lastTime) {
+		return bucketStart(firstTime) == bucketStart(lastTime);
+	}
+
+	void add(long time, long value) {
+		Bucket bucket = merge(time, value, value, value, value, 1);
+		try {
+			bucket.sum = Math.addExact(bucket.sum, value);
+		} catch (ArithmeticException e) {
+			bucket.carry = bucket.carry.add(BigInteger.valueOf(bucket.sum));
+			bucket.sum = value;
+		}
+	}
+
+	// Ticks must be merged in time order, which is the order they are stored in
+	void merge(long time, long open, long high, long low, long close, BigInteger sum, long count) {
+		Bucket bucket = merge(time, open, high, low, close, count);
+		bucket.carry = bucket.carry.add(sum);
+	}
+
+	private Bucket merge(long time, long open, long high, long low, long close, long count) {
+		Bucket bucket = buckets.computeIfAbsent(bucketStart(time), start -> new Bucket());
+		if (bucket.count == 0) {
+			bucket.open = open;
+			bucket.high = high;
+			bucket.low = low;
+		} else {
+			bucket.high = Math.max(bucket.high, high);
+			bucket.low = Math.min(bucket.low, low);
+		}
+		bucket.close = close;
+		bucket.count += count;
+		return bucket;
+	}
+
+	List<OhlcBar> bars() {
+		List<OhlcBar> bars = new ArrayList<>(buckets.size());
+		buckets.forEach((start, bucket) -> bars.add(new OhlcBar(Instant.ofEpochMilli(start),
+				decimal(bucket.open), decimal(bucket.high), decimal(bucket.low), decimal(bucket.close),
+				new BigDecimal(bucket.carry.add(BigInteger.valueOf(bucket.sum)), RateTimeSeries.VALUE_SCALE)
+						.divide(BigDecimal.valueOf(bucket.count), RateTimeSeries.VALUE_SCALE, RoundingMode.HALF_EVEN),
+				bucket.count)));
+		return bars;
+	}
+
+	private long bucketStart(long time) {
+		return Math.floorDiv(time, bucketMillis) * bucketMillis;
+	}
+
+	private static BigDecimal decimal(long scaled) {
+		return BigDecimal.valueOf(scaled, RateTimeSeries.VALUE_SCALE);
+	}
+
+	private static final class Bucket {
+		private long open;
+		private long high;
+		private long low;
+		private long close;
+		// scaled sum of the ticks: added into a long, spilling into carry when it would overflow
+		private long sum;
+		private BigInteger carry = BigInteger.ZERO;
+		private long count;
+	}
+}
@@ -0,0 +1,148 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.OhlcBar;
+import com.amit.microservices.currencyexchangeservice.bean.OhlcInterval;
+import com.amit.microservices.currencyexchangeservice.bean.TimeSeriesFootprint;
+
+/*
+ * Builds per-pair time series from currency_exchange_history and answers bucketed OHLC
+ * queries.
+ *
+ * Every history row is one tick at its effective time. The series follow the table by
+ * id: the first run seeks the first row inside the retention window through the
+ * effective_time index and reads from there, so a restart starts from the stored
+ * history without scanning older rows, and later runs only read rows added since. Ids
+ * are handed out in commit order and effective times grow with them, because feeds are
+ * ingested one at a time. Ticks older than the retention window are evicted, and pairs
+ * with no ticks left are dropped.
+ */
+@Service
+public class RateAggregationService {
+
+	private static final String TAIL_SQL = "select id, currency_from, currency_to, conversion_multiple, effective_time"
+			+ " from currency_exchange_history where id > ? order by id fetch first ? rows only";
+
+	private static final String FIRST_IN_WINDOW_SQL = "select id from currency_exchange_history"
+			+ " where effective_time >= ? order by effective_time, id fetch first 1 rows only";
+
+	private Logger logger = LoggerFactory.getLogger(RateAggregationService.class);
+
+	private final Map<Long, RateTimeSeries> series = new ConcurrentHashMap<>();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final Duration retention;
+
+	private final int batchSize;
+
+	// Highest history id already recorded; only touched by catchUp()
+	private long lastHistoryId;
+
+	public RateAggregationService(JdbcTemplate jdbcTemplate,
+			@Value("${currency-exchange.ohlc.retention:30d}") Duration retention,
+			@Value("${currency-exchange.ohlc.batch-size:10000}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.retention = retention;
+		this.batchSize = batchSize;
+	}
+
+	@Scheduled(fixedDelayString = "${currency-exchange.ohlc.poll-interval:1000}")
+	public synchronized void catchUp() {
+		long cutoff = System.currentTimeMillis() - retention.toMillis();
+		if (lastHistoryId == 0) {
+			List<Long> first = jdbcTemplate.queryForList(FIRST_IN_WINDOW_SQL, Long.class,
+					OffsetDateTime.ofInstant(Instant.ofEpochMilli(cutoff), ZoneOffset.UTC));
+			if (!first.isEmpty()) {
+				lastHistoryId = first.get(0) - 1;
+			}
+		}
+		long ticks = 0;
+		int read;
+		do {
+			long[] last = { lastHistoryId };
+			long[] recorded = { 0 };
+			read = jdbcTemplate.query(TAIL_SQL, (rs, rowNum) -> {
+				last[0] = rs.getLong(1);
+				long time = rs.getObject(5, OffsetDateTime.class).toInstant().toEpochMilli();
+				if (time >= cutoff && record(rs.getString(2), rs.getString(3), time, rs.getBigDecimal(4))) {
+					recorded[0]++;
+				}
+				return null;
+			}, lastHistoryId, batchSize).size();
+			lastHistoryId = last[0];
+			ticks += recorded[0];
+		} while (read == batchSize);
+
+		evictBefore(cutoff);
+		if (ticks > 0) {
+			logger.debug("Recorded {} ticks up to history id {}", ticks, lastHistoryId);
+		}
+	}
+
+	public List<OhlcBar> ohlc(long pair, OhlcInterval interval, Instant start, Instant end) {
+		OhlcBuckets buckets = new OhlcBuckets(interval.millis());
+		RateTimeSeries pairSeries = series.get(pair);
+		if (pairSeries != null) {
+			pairSeries.aggregate(start.toEpochMilli(), end.toEpochMilli(), buckets);
+		}
+		return buckets.bars();
+	}
+
+	public TimeSeriesFootprint footprint() {
+		long ticks = 0;
+		long blocks = 0;
+		long bytes = 0;
+		for (RateTimeSeries pairSeries : series.values()) {
+			ticks += pairSeries.ticks();
+			blocks += pairSeries.sealedBlocks();
+			bytes += pairSeries.bytes();
+		}
+		long perMillion = ticks == 0 ? 0 : bytes * 1_000_000L / ticks;
+		return new TimeSeriesFootprint(series.size(), ticks, blocks, bytes, perMillion);
+	}
+
+	private boolean record(String from, String to, long time, BigDecimal rate) {
+		if (!CurrencyPair.isValid(from) || !CurrencyPair.isValid(to)) {
+			return false;
+		}
+		long scaled;
+		try {
+			scaled = rate.setScale(RateTimeSeries.VALUE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+		} catch (ArithmeticException e) {
+			// too large for a scaled long; such a rate is not a real exchange rate
+			return false;
+		}
+		return series.computeIfAbsent(CurrencyPair.of(from, to), key -> new RateTimeSeries()).append(time, scaled);
+	}
+
+	private void evictBefore(long cutoff) {
+		Iterator<RateTimeSeries> iterator = series.values().iterator();
+		while (iterator.hasNext()) {
+			RateTimeSeries pairSeries = iterator.next();
+			pairSeries.evictBefore(cutoff);
+			// catchUp() is the only writer, so an empty series cannot gain a tick in between
+			if (pairSeries.ticks() == 0) {
+				iterator.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.util.List;
+
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+// One committed write in the RateChangeLog: the stored rates it set, at a log offset starting from 1
+public record RateChange(long offset, List<ExchangeRate> rates, long appendedAt) {
+}
@@ -0,0 +1,79 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+/*
+ * In-process, append-only log of committed rate writes (the write side of the service).
+ *
+ * Writers append after their transaction has committed; the read model follows the
+ * log from its own offset. Only the last `retention` entries are kept: a consumer that
+ * falls further behind than that finds its next offset gone and has to rebuild from
+ * the store instead.
+ */
+@Component
+public class RateChangeLog {
+
+	private final int retention;
+
+	private final Deque<RateChange> entries = new ArrayDeque<>();
+
+	private long endOffset;
+
+	public RateChangeLog(@Value("${currency-exchange.read-model.log-retention:10000}") int retention) {
+		this.retention = retention;
+	}
+
+	public synchronized long append(List<ExchangeRate> rates) {
+		RateChange change = new RateChange(++endOffset, List.copyOf(rates), System.currentTimeMillis());
+		entries.addLast(change);
+		if (entries.size() > retention) {
+			entries.removeFirst();
+		}
+		notifyAll();
+		return change.offset();
+	}
+
+	// Offset of the last appended entry, 0 while the log is empty
+	public synchronized long endOffset() {
+		return endOffset;
+	}
+
+	// Offset of the oldest entry still held
+	public synchronized long firstOffset() {
+		return entries.isEmpty() ? endOffset + 1 : entries.peekFirst().offset();
+	}
+
+	/*
+	 * Entries after `offset`, waiting up to timeoutMillis for one to be appended. Returns
+	 * an empty list on timeout, and null when entries after `offset` have already been
+	 * dropped by retention.
+	 */
+	public synchronized List<RateChange> readAfter(long offset, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (endOffset <= offset) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return List.of();
+			}
+			wait(remaining);
+		}
+		if (firstOffset() > offset + 1) {
+			return null;
+		}
+		List<RateChange> changes = new ArrayList<>((int) (endOffset - offset));
+		for (RateChange change : entries) {
+			if (change.offset() > offset) {
+				changes.add(change);
+			}
+		}
+		return changes;
+	}
+}
@@ -0,0 +1,90 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.HistoricalRate;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeHistoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Service
+public class RateHistoryService {
+
+	private final CurrencyExchangeHistoryRepository repository;
+
+	private final ReadModelProjector projector;
+
+	private final RateChangeLog changeLog;
+
+	private final int maxRows;
+
+	private final Cache<Long, Latest> latest;
+
+	public RateHistoryService(CurrencyExchangeHistoryRepository repository, ReadModelProjector projector,
+			RateChangeLog changeLog, @Value("${currency-exchange.history.max-rows:10000}") int maxRows,
+			@Value("${currency-exchange.history.latest-cache.max-size:10000}") long latestCacheSize) {
+		this.repository = repository;
+		this.projector = projector;
+		this.changeLog = changeLog;
+		this.maxRows = maxRows;
+		this.latest = Caffeine.newBuilder().maximumSize(latestCacheSize).build();
+	}
+
+	/*
+	 * Rate in force at asOf, or null.
+	 *
+	 * The newest history row of a pair answers every instant from its effective time on,
+	 * so it is cached per pair and as-of reads of the latest period become an in-memory
+	 * lookup like current-rate reads; older instants go to the history index. A cached
+	 * row is only trusted while the read model's applied offset is the one it was read
+	 * at and there are no committed writes the read model has not applied yet: history
+	 * rows carry the feed's effective time, so no wall-clock instant can tell whether a
+	 * write is already visible.
+	 */
+	public HistoricalRate findAsOf(String from, String to, Instant asOf) {
+		long applied = projector.appliedOffset();
+		if (applied != changeLog.endOffset()) {
+			return query(from, to, asOf);
+		}
+
+		long pair = CurrencyPair.of(from, to);
+		Latest cached = latest.getIfPresent(pair);
+		if (cached == null || cached.appliedOffset() != applied) {
+			cached = new Latest(applied, queryLatest(from, to));
+			latest.put(pair, cached);
+		}
+		HistoricalRate rate = cached.rate();
+		if (rate != null && asOf.isBefore(rate.effectiveTime())) {
+			return query(from, to, asOf);
+		}
+		return rate;
+	}
+
+	// At most currency-exchange.history.max-rows entries, oldest first
+	public List<HistoricalRate> findRange(String from, String to, Instant start, Instant end) {
+		return repository.findRange(CurrencyPair.normalize(from), CurrencyPair.normalize(to), start, end,
+				PageRequest.of(0, maxRows));
+	}
+
+	private HistoricalRate query(String from, String to, Instant asOf) {
+		List<HistoricalRate> rates = repository.findAsOf(CurrencyPair.normalize(from), CurrencyPair.normalize(to), asOf,
+				PageRequest.of(0, 1));
+		return rates.isEmpty() ? null : rates.get(0);
+	}
+
+	private HistoricalRate queryLatest(String from, String to) {
+		List<HistoricalRate> rates = repository.findLatest(CurrencyPair.normalize(from), CurrencyPair.normalize(to),
+				PageRequest.of(0, 1));
+		return rates.isEmpty() ? null : rates.get(0);
+	}
+
+	// Newest history row of a pair (null if it has none) as of the read model's applied offset
+	private record Latest(long appliedOffset, HistoricalRate rate) {
+	}
+}
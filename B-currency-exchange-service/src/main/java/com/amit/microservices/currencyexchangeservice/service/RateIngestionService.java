@@ -0,0 +1,246 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.IngestionReport;
+import com.amit.microservices.currencyexchangeservice.bean.RateUpdate;
+import com.amit.microservices.currencyexchangeservice.exception.IngestionConflictException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Applies bulk rate feeds to currency_exchange.
+ *
+ * The feed is consumed as a stream and written in JDBC batches of batchSize rows:
+ * first one batched UPDATE per chunk, then one batched INSERT for the pairs the
+ * UPDATE did not find (upsert). Inserts are sent in id order and updates in pair
+ * order. Every row of the feed, repeats of a pair included, is also appended to
+ * currency_exchange_history in feed order with the time the feed started as its
+ * effective time, so the history is a complete audit of the feed. The whole feed runs in one
+ * transaction; a bad row rolls everything back. After the commit the written rates,
+ * last value per pair, are appended to the RateChangeLog as one entry; the read model
+ * picks them up from there, so the feed never waits for the rate table to rebuild.
+ */
+@Service
+public class RateIngestionService {
+
+	private static final String UPDATE_SQL =
+			"update currency_exchange set conversion_multiple = ? where currency_from = ? and currency_to = ?";
+
+	private static final String INSERT_SQL =
+			"insert into currency_exchange (id, currency_from, currency_to, conversion_multiple, environment) values (?, ?, ?, ?, '')";
+
+	private static final String HISTORY_SQL =
+			"insert into currency_exchange_history (currency_from, currency_to, conversion_multiple, effective_time) values (?, ?, ?, ?)";
+
+	private Logger logger = LoggerFactory.getLogger(RateIngestionService.class);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final RateChangeLog changeLog;
+
+	private final OffHeapRateStore offHeapStore;
+
+	private final int batchSize;
+
+	private final Timer feedTimer;
+
+	private final Counter insertedRows;
+
+	private final Counter updatedRows;
+
+	public RateIngestionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			RateChangeLog changeLog, OffHeapRateStore offHeapStore, MeterRegistry meterRegistry,
+			@Value("${currency-exchange.ingest.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.changeLog = changeLog;
+		this.offHeapStore = offHeapStore;
+		this.batchSize = batchSize;
+		this.feedTimer = Timer.builder("currency.exchange.ingest.feed")
+				.description("Time to apply one bulk rate feed")
+				.register(meterRegistry);
+		this.insertedRows = Counter.builder("currency.exchange.ingest.rows")
+				.tag("operation", "insert")
+				.register(meterRegistry);
+		this.updatedRows = Counter.builder("currency.exchange.ingest.rows")
+				.tag("operation", "update")
+				.register(meterRegistry);
+	}
+
+	/*
+	 * Feeds are applied one at a time: ids for new pairs are handed out from max(id),
+	 * which is only safe with a single writer.
+	 */
+	public synchronized IngestionReport ingest(Iterator<RateUpdate> feed) {
+		if (offHeapStore.isReader()) {
+			// the rate table of a reader follows the off-heap file, so rates written here would never be served
+			throw new IngestionConflictException("Rates are ingested by the off-heap writer instance, not by a reader");
+		}
+		long start = System.nanoTime();
+		OffsetDateTime effectiveTime = OffsetDateTime.now(ZoneOffset.UTC);
+		Map<Long, ExchangeRate> written = new LinkedHashMap<>();
+
+		// {feed rows read, pairs inserted}
+		long[] counts = transactionTemplate.execute(status -> {
+			long nextId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from currency_exchange", Long.class);
+			long rows = 0;
+			long inserted = 0;
+
+			List<RateUpdate> chunk = new ArrayList<>(batchSize);
+			while (feed.hasNext()) {
+				chunk.add(normalize(feed.next()));
+				rows++;
+				if (chunk.size() == batchSize) {
+					int chunkInserts = writeChunk(chunk, nextId, effectiveTime, written);
+					inserted += chunkInserts;
+					nextId += chunkInserts;
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				inserted += writeChunk(chunk, nextId, effectiveTime, written);
+			}
+			return new long[] { rows, inserted };
+		});
+
+		if (!written.isEmpty()) {
+			changeLog.append(new ArrayList<>(written.values()));
+		}
+
+		long rows = counts[0];
+		long inserted = counts[1];
+		// a pair is inserted at most once per feed; every other pair it wrote already existed
+		long updated = written.size() - inserted;
+		long elapsedNanos = System.nanoTime() - start;
+		feedTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+		insertedRows.increment(inserted);
+		updatedRows.increment(updated);
+
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+		long rowsPerSecond = elapsedNanos == 0 ? rows : rows * 1_000_000_000L / elapsedNanos;
+		logger.info("Ingested {} rates ({} pairs inserted, {} updated) in {} ms, {} rows/s", rows, inserted, updated,
+				elapsedMillis, rowsPerSecond);
+		return new IngestionReport(rows, inserted, updated, elapsedMillis, rowsPerSecond);
+	}
+
+	/*
+	 * Returns the number of pairs of the chunk that were inserted. The last value for a
+	 * pair wins; those pairs are also put into `written`, inserts with their new id.
+	 * History gets every row of the chunk.
+	 */
+	private int writeChunk(List<RateUpdate> chunk, long firstNewId, OffsetDateTime effectiveTime,
+			Map<Long, ExchangeRate> written) {
+		Map<Long, RateUpdate> lastPerPair = new LinkedHashMap<>();
+		for (RateUpdate update : chunk) {
+			lastPerPair.put(CurrencyPair.of(update.from(), update.to()), update);
+		}
+		List<RateUpdate> updates = new ArrayList<>(lastPerPair.values());
+		updates.sort(Comparator.comparing(RateUpdate::from).thenComparing(RateUpdate::to));
+
+		int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				RateUpdate update = updates.get(i);
+				ps.setBigDecimal(1, update.conversionMultiple());
+				ps.setString(2, update.from());
+				ps.setString(3, update.to());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return updates.size();
+			}
+		});
+
+		List<RateUpdate> inserts = new ArrayList<>();
+		for (int i = 0; i < updateCounts.length; i++) {
+			RateUpdate update = updates.get(i);
+			if (updateCounts[i] == 0) {
+				inserts.add(update);
+			} else {
+				// keep the id when the pair was inserted by an earlier chunk of this feed
+				long pair = CurrencyPair.of(update.from(), update.to());
+				ExchangeRate earlier = written.get(pair);
+				written.put(pair, new ExchangeRate(earlier == null ? null : earlier.id(), update.from(), update.to(),
+						update.conversionMultiple()));
+			}
+		}
+		for (int i = 0; i < inserts.size(); i++) {
+			RateUpdate insert = inserts.get(i);
+			written.put(CurrencyPair.of(insert.from(), insert.to()),
+					new ExchangeRate(firstNewId + i, insert.from(), insert.to(), insert.conversionMultiple()));
+		}
+		if (!inserts.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					RateUpdate insert = inserts.get(i);
+					ps.setLong(1, firstNewId + i);
+					ps.setString(2, insert.from());
+					ps.setString(3, insert.to());
+					ps.setBigDecimal(4, insert.conversionMultiple());
+				}
+
+				@Override
+				public int getBatchSize() {
+					return inserts.size();
+				}
+			});
+		}
+
+		jdbcTemplate.batchUpdate(HISTORY_SQL, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				RateUpdate update = chunk.get(i);
+				ps.setString(1, update.from());
+				ps.setString(2, update.to());
+				ps.setBigDecimal(3, update.conversionMultiple());
+				ps.setObject(4, effectiveTime);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return chunk.size();
+			}
+		});
+		return inserts.size();
+	}
+
+	private static RateUpdate normalize(RateUpdate update) {
+		if (update.from() == null || update.to() == null || update.conversionMultiple() == null) {
+			throw new IllegalArgumentException("Rate update needs from, to and conversionMultiple: " + update);
+		}
+		if (update.conversionMultiple().compareTo(BigDecimal.ZERO) <= 0) {
+			throw new IllegalArgumentException("conversionMultiple must be positive: " + update);
+		}
+		return new RateUpdate(CurrencyPair.normalize(update.from().trim()), CurrencyPair.normalize(update.to().trim()),
+				update.conversionMultiple());
+	}
+}
@@ -0,0 +1,288 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Pushes rate changes to Server-Sent Events subscribers.
+ *
+ * Every subscriber has its own pending buffer keyed by pair. A newer value for a pair
+ * that has not been sent yet replaces the older one (coalesce), so the buffer never
+ * holds more than one entry per pair and the last value of every pair is always sent.
+ *
+ * A subscriber has at most one send task queued or running at a time. While it is busy,
+ * new updates only go into its buffer and heartbeats skip it, so a slow client ties up
+ * at most one sender thread and never fills the (bounded) sender queue with its work.
+ *
+ * A send blocks while the client's TCP window is full. A send still running after
+ * send-timeout drops the subscriber: its sender thread is interrupted, and the pool gets
+ * one extra thread until that send returns, so stalled clients cannot take every sender
+ * away from the others.
+ */
+@Service
+public class RateSubscriptionService {
+
+	private Logger logger = LoggerFactory.getLogger(RateSubscriptionService.class);
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private final ThreadPoolExecutor senders;
+
+	private final Counter coalesced;
+
+	private final Counter deferred;
+
+	private final Counter stalled;
+
+	private final long sendTimeoutNanos;
+
+	public RateSubscriptionService(
+			@Value("${currency-exchange.subscriptions.sender-threads:2}") int senderThreads,
+			@Value("${currency-exchange.subscriptions.sender-queue:1024}") int senderQueue,
+			@Value("${currency-exchange.subscriptions.send-timeout:5000}") long sendTimeoutMillis,
+			MeterRegistry meterRegistry) {
+		this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+		this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(senderQueue));
+		this.coalesced = Counter.builder("currency.exchange.subscriptions.updates")
+				.description("Rate updates replaced by a newer value before they were sent")
+				.tag("result", "coalesced")
+				.register(meterRegistry);
+		this.deferred = Counter.builder("currency.exchange.subscriptions.sends")
+				.description("Send tasks not queued because the sender queue was full")
+				.tag("result", "deferred")
+				.register(meterRegistry);
+		this.stalled = Counter.builder("currency.exchange.subscriptions.sends")
+				.description("Sends that ran past the send timeout; their subscriber is dropped")
+				.tag("result", "stalled")
+				.register(meterRegistry);
+		meterRegistry.gauge("currency.exchange.subscriptions.active", subscribers, List::size);
+	}
+
+	/*
+	 * pairs holds packed CurrencyPair keys; an empty set subscribes to every pair.
+	 * The current value of each matching pair is queued straight away, so a client does
+	 * not need a separate GET before it starts listening.
+	 */
+	public SseEmitter subscribe(Set<Long> pairs, Iterable<ExchangeRate> currentRates) {
+		return subscribe(new SseEmitter(0L), pairs, currentRates);
+	}
+
+	SseEmitter subscribe(SseEmitter emitter, Set<Long> pairs, Iterable<ExchangeRate> currentRates) {
+		Subscriber subscriber = new Subscriber(emitter, pairs);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+
+		currentRates.forEach(subscriber::offer);
+		subscriber.scheduleDrain();
+		return emitter;
+	}
+
+	@EventListener
+	public void onRatesChanged(ExchangeRatesChangedEvent event) {
+		for (Subscriber subscriber : subscribers) {
+			for (ExchangeRate rate : event.changed()) {
+				subscriber.offer(rate);
+			}
+			subscriber.scheduleDrain();
+		}
+	}
+
+	/*
+	 * Keeps idle connections open through proxies and detects clients that went away.
+	 * Busy subscribers are skipped: a send is already in flight on their connection.
+	 */
+	@Scheduled(fixedRateString = "${currency-exchange.subscriptions.heartbeat-interval:15000}")
+	public void heartbeat() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.heartbeat();
+		}
+	}
+
+	/*
+	 * Drops subscribers whose current send has run past the send timeout. The emitter is
+	 * not completed here: it stays locked by the blocked send, so the sender thread
+	 * completes it once the write returns, whether through the interrupt or the
+	 * container's own write timeout. Until then it does not count against the pool.
+	 */
+	@Scheduled(fixedDelayString = "${currency-exchange.subscriptions.send-timeout-check:1000}")
+	public void dropStalledSubscribers() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : subscribers) {
+			long started = subscriber.sendStarted.get();
+			if (started != IDLE && started != ABANDONED && now - started > sendTimeoutNanos
+					&& subscriber.sendStarted.compareAndSet(started, ABANDONED)) {
+				logger.debug("Dropping rate subscriber: send blocked for more than {} ms",
+						TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+				stalled.increment();
+				subscriber.closed = true;
+				subscribers.remove(subscriber);
+				borrowSender();
+				subscriber.sender.interrupt();
+			}
+		}
+	}
+
+	// One extra sender thread for every send abandoned by dropStalledSubscribers() that has not returned yet
+	private synchronized void borrowSender() {
+		senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+		senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+	}
+
+	private synchronized void returnSender() {
+		senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+		senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		senders.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	// Subscriber.sendStarted when no send is running, and once the watchdog gave up on one
+	private static final long IDLE = Long.MIN_VALUE;
+	private static final long ABANDONED = Long.MIN_VALUE + 1;
+
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Set<Long> pairs;
+		private final LinkedHashMap<Long, ExchangeRate> pending = new LinkedHashMap<>();
+		// true while a send task for this subscriber is queued or running
+		private final AtomicBoolean busy = new AtomicBoolean();
+		private volatile boolean heartbeatDue;
+		// nanoTime at which the running send started, or IDLE / ABANDONED
+		private final AtomicLong sendStarted = new AtomicLong(IDLE);
+		private volatile Thread sender;
+		private volatile boolean closed;
+
+		private Subscriber(SseEmitter emitter, Set<Long> pairs) {
+			this.emitter = emitter;
+			this.pairs = pairs;
+		}
+
+		private void offer(ExchangeRate rate) {
+			Long key = CurrencyPair.of(rate.from(), rate.to());
+			if (!pairs.isEmpty() && !pairs.contains(key)) {
+				return;
+			}
+			synchronized (pending) {
+				if (pending.put(key, rate) != null) {
+					coalesced.increment();
+				}
+			}
+		}
+
+		private void heartbeat() {
+			if (!busy.get()) {
+				heartbeatDue = true;
+				scheduleDrain();
+			}
+		}
+
+		private void scheduleDrain() {
+			if (!closed && busy.compareAndSet(false, true)) {
+				try {
+					senders.execute(this::drain);
+				} catch (RejectedExecutionException e) {
+					// Updates stay in the buffer; the next change or heartbeat schedules them again
+					busy.set(false);
+					deferred.increment();
+				}
+			}
+		}
+
+		private void drain() {
+			try {
+				List<ExchangeRate> batch;
+				boolean sent = false;
+				while (!(batch = takePending()).isEmpty()) {
+					for (ExchangeRate rate : batch) {
+						if (!send(SseEmitter.event().name("rate").data(rate))) {
+							return;
+						}
+						sent = true;
+					}
+				}
+				if (heartbeatDue) {
+					heartbeatDue = false;
+					if (!sent && !send(SseEmitter.event().comment("heartbeat"))) {
+						return;
+					}
+				}
+			} finally {
+				busy.set(false);
+			}
+			// an update may have arrived after the last takePending() but before the flag was cleared
+			synchronized (pending) {
+				if (pending.isEmpty()) {
+					return;
+				}
+			}
+			scheduleDrain();
+		}
+
+		private List<ExchangeRate> takePending() {
+			synchronized (pending) {
+				List<ExchangeRate> batch = new ArrayList<>(pending.values());
+				pending.clear();
+				return batch;
+			}
+		}
+
+		private boolean send(SseEmitter.SseEventBuilder event) {
+			sender = Thread.currentThread();
+			long started = System.nanoTime();
+			sendStarted.set(started);
+			Exception failure = null;
+			try {
+				emitter.send(event);
+			} catch (IOException | IllegalStateException e) {
+				failure = e;
+			}
+			if (!sendStarted.compareAndSet(started, IDLE)) {
+				// dropped by dropStalledSubscribers(); clear its interrupt before the thread goes back to the pool
+				Thread.interrupted();
+				returnSender();
+				emitter.completeWithError(failure != null ? failure : new IOException("Send timed out"));
+				return false;
+			}
+			if (failure != null) {
+				logger.debug("Dropping rate subscriber: {}", failure.getMessage());
+				closed = true;
+				subscribers.remove(this);
+				emitter.completeWithError(failure);
+				return false;
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/*
+ * Ticks (time, rate) of one currency pair, stored column by column.
+ *
+ * New ticks go into an open block of two plain long[] columns. When the open block is
+ * full it is sealed: timestamps and values (rates as longs scaled by VALUE_SCALE) are
+ * each delta encoded and written as zig-zag varints, so a block of slowly moving
+ * rates takes a few bytes per tick instead of 16. Every sealed block also keeps its
+ * own open/high/low/close/sum, so a query only decodes the blocks that straddle a
+ * bucket or range boundary; blocks that fall inside a single bucket are merged from
+ * their summary.
+ *
+ * Ticks have to arrive in time order. A tick older than the newest one is rejected,
+ * since it would break the open/close of the blocks and buckets it falls into.
+ * evictBefore drops whole sealed blocks and the old head of the open block.
+ */
+final class RateTimeSeries {
+
+	static final int VALUE_SCALE = 8;
+
+	static final int BLOCK_SIZE = 1024;
+
+	// Rough per-block cost of the Block object, its two arrays and the list slot
+	private static final int BLOCK_OVERHEAD_BYTES = 96;
+
+	private final List<Block> sealed = new ArrayList<>();
+
+	private final long[] openTimes = new long[BLOCK_SIZE];
+	private final long[] openValues = new long[BLOCK_SIZE];
+	private int openCount;
+
+	private long ticks;
+
+	private long lastTime = Long.MIN_VALUE;
+
+	// false if the tick is older than the newest one
+	synchronized boolean append(long time, long value) {
+		if (time < lastTime) {
+			return false;
+		}
+		lastTime = time;
+		openTimes[openCount] = time;
+		openValues[openCount] = value;
+		openCount++;
+		ticks++;
+		if (openCount == BLOCK_SIZE) {
+			sealed.add(Block.encode(openTimes, openValues, openCount));
+			openCount = 0;
+		}
+		return true;
+	}
+
+	// Drops every tick with time < cutoff
+	synchronized void evictBefore(long cutoff) {
+		Iterator<Block> blocks = sealed.iterator();
+		while (blocks.hasNext()) {
+			Block block = blocks.next();
+			if (block.lastTime >= cutoff) {
+				// blocks are in time order; a block straddling the cutoff is kept whole until it is all older
+				return;
+			}
+			blocks.remove();
+			ticks -= block.count;
+		}
+		int kept = 0;
+		while (kept < openCount && openTimes[kept] < cutoff) {
+			kept++;
+		}
+		if (kept > 0) {
+			System.arraycopy(openTimes, kept, openTimes, 0, openCount - kept);
+			System.arraycopy(openValues, kept, openValues, 0, openCount - kept);
+			openCount -= kept;
+			ticks -= kept;
+		}
+	}
+
+	// Feeds every tick with start <= time < end into the buckets
+	synchronized void aggregate(long start, long end, OhlcBuckets buckets) {
+		for (Block block : sealed) {
+			if (block.lastTime < start || block.firstTime >= end) {
+				continue;
+			}
+			boolean insideRange = block.firstTime >= start && block.lastTime < end;
+			if (insideRange && buckets.sameBucket(block.firstTime, block.lastTime)) {
+				buckets.merge(block.firstTime, block.open, block.high, block.low, block.close, block.sum, block.count);
+			} else {
+				block.decode((time, value) -> {
+					if (time >= start && time < end) {
+						buckets.add(time, value);
+					}
+				});
+			}
+		}
+		for (int i = 0; i < openCount; i++) {
+			if (openTimes[i] >= start && openTimes[i] < end) {
+				buckets.add(openTimes[i], openValues[i]);
+			}
+		}
+	}
+
+	synchronized long ticks() {
+		return ticks;
+	}
+
+	synchronized long sealedBlocks() {
+		return sealed.size();
+	}
+
+	synchronized long bytes() {
+		long bytes = 2L * Long.BYTES * BLOCK_SIZE;
+		for (Block block : sealed) {
+			bytes += block.times.length + block.values.length + BLOCK_OVERHEAD_BYTES;
+		}
+		return bytes;
+	}
+
+	interface TickConsumer {
+		void accept(long time, long value);
+	}
+
+	private static final class Block {
+
+		private final byte[] times;
+		private final byte[] values;
+		private final int count;
+		private final long firstTime;
+		private final long lastTime;
+		private final long open;
+		private final long high;
+		private final long low;
+		private final long close;
+		private final BigInteger sum;
+
+		private Block(byte[] times, byte[] values, int count, long firstTime, long lastTime, long open, long high,
+				long low, long close, BigInteger sum) {
+			this.times = times;
+			this.values = values;
+			this.count = count;
+			this.firstTime = firstTime;
+			this.lastTime = lastTime;
+			this.open = open;
+			this.high = high;
+			this.low = low;
+			this.close = close;
+			this.sum = sum;
+		}
+
+		static Block encode(long[] times, long[] values, int count) {
+			long high = Long.MIN_VALUE;
+			long low = Long.MAX_VALUE;
+			long firstTime = Long.MAX_VALUE;
+			long lastTime = Long.MIN_VALUE;
+			BigInteger sum = BigInteger.ZERO;
+			for (int i = 0; i < count; i++) {
+				high = Math.max(high, values[i]);
+				low = Math.min(low, values[i]);
+				firstTime = Math.min(firstTime, times[i]);
+				lastTime = Math.max(lastTime, times[i]);
+				sum = sum.add(BigInteger.valueOf(values[i]));
+			}
+			return new Block(deltaEncode(times, count), deltaEncode(values, count), count, firstTime, lastTime,
+					values[0], high, low, values[count - 1], sum);
+		}
+
+		void decode(TickConsumer consumer) {
+			int[] timePos = { 0 };
+			int[] valuePos = { 0 };
+			long time = 0;
+			long value = 0;
+			for (int i = 0; i < count; i++) {
+				time += readVarLong(times, timePos);
+				value += readVarLong(values, valuePos);
+				consumer.accept(time, value);
+			}
+		}
+	}
+
+	private static byte[] deltaEncode(long[] column, int count) {
+		// worst case 10 bytes per varint
+		byte[] out = new byte[count * 10];
+		int pos = 0;
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			long delta = column[i] - previous;
+			previous = column[i];
+			long zigZag = (delta << 1) ^ (delta >> 63);
+			while ((zigZag & ~0x7FL) != 0) {
+				out[pos++] = (byte) ((zigZag & 0x7F) | 0x80);
+				zigZag >>>= 7;
+			}
+			out[pos++] = (byte) zigZag;
+		}
+		return Arrays.copyOf(out, pos);
+	}
+
+	private static long readVarLong(byte[] in, int[] pos) {
+		long zigZag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in[pos[0]++];
+			zigZag |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigZag >>> 1) ^ -(zigZag & 1);
+	}
+}
@@ -0,0 +1,162 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.ReadModelStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Keeps the read model (CurrencyExchangeRateTable) in step with the write side.
+ *
+ * A single background thread follows the RateChangeLog and applies every committed
+ * write to the rate table in memory. Whatever has piled up since the last pass is
+ * applied as one batch, so a burst of writes costs one snapshot swap rather than one
+ * per write, and lookups never wait on the database or on the writer. If the thread
+ * falls behind the log retention, or applying fails, the table is rebuilt from the
+ * store instead.
+ */
+@Service
+public class ReadModelProjector implements SmartInitializingSingleton {
+
+	private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+	private Logger logger = LoggerFactory.getLogger(ReadModelProjector.class);
+
+	private final RateChangeLog changeLog;
+
+	private final CurrencyExchangeRateTable rateTable;
+
+	private final Timer applyDelay;
+
+	private final Counter rebuilds;
+
+	private final Thread worker;
+
+	private volatile long appliedOffset;
+
+	private volatile boolean running = true;
+
+	public ReadModelProjector(RateChangeLog changeLog, CurrencyExchangeRateTable rateTable, MeterRegistry meterRegistry) {
+		this.changeLog = changeLog;
+		this.rateTable = rateTable;
+		this.appliedOffset = changeLog.endOffset();
+		this.applyDelay = Timer.builder("currency.exchange.read.model.apply.delay")
+				.description("Time from a committed write to the read model serving it")
+				.register(meterRegistry);
+		this.rebuilds = Counter.builder("currency.exchange.read.model.rebuilds")
+				.description("Read model rebuilds from the store")
+				.register(meterRegistry);
+		Gauge.builder("currency.exchange.read.model.lag", this, projector -> projector.status().lag())
+				.description("Committed rate writes not yet applied to the read model")
+				.register(meterRegistry);
+		this.worker = new Thread(this::run, "rate-read-model");
+		this.worker.setDaemon(true);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		worker.start();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		worker.interrupt();
+	}
+
+	/*
+	 * Reloads the read model from the store. Every write appended up to now is committed
+	 * and therefore part of the reload; later ones are applied on top, which is harmless
+	 * because a write sets absolute values.
+	 */
+	public synchronized ReadModelStatus rebuild() {
+		long endOffset = changeLog.endOffset();
+		rateTable.reload();
+		appliedOffset = endOffset;
+		rebuilds.increment();
+		return status();
+	}
+
+	// Offset of the last rate change folded into the rate table
+	public long appliedOffset() {
+		return appliedOffset;
+	}
+
+	public ReadModelStatus status() {
+		long applied = appliedOffset;
+		long end = changeLog.endOffset();
+		return new ReadModelStatus(applied, end, Math.max(0, end - applied), rateTable.version());
+	}
+
+	private void run() {
+		while (running) {
+			try {
+				List<RateChange> changes = changeLog.readAfter(appliedOffset, POLL_TIMEOUT_MILLIS);
+				if (changes == null) {
+					logger.warn("Read model fell behind the rate change log retention, rebuilding from the store");
+					rebuild();
+				} else if (!changes.isEmpty()) {
+					apply(changes);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				logger.error("Could not apply rate changes to the read model, rebuilding from the store", e);
+				recover();
+			}
+		}
+	}
+
+	private synchronized void apply(List<RateChange> changes) {
+		List<ExchangeRate> rates = new ArrayList<>();
+		long first = appliedOffset;
+		long last = first;
+		for (RateChange change : changes) {
+			// a rebuild may have overtaken this batch
+			if (change.offset() > last) {
+				rates.addAll(change.rates());
+				last = change.offset();
+			}
+		}
+		if (rates.isEmpty()) {
+			return;
+		}
+		rateTable.apply(rates);
+		appliedOffset = last;
+
+		long now = System.currentTimeMillis();
+		for (RateChange change : changes) {
+			if (change.offset() > first) {
+				applyDelay.record(now - change.appendedAt(), TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	private void recover() {
+		try {
+			rebuild();
+		} catch (RuntimeException e) {
+			logger.error("Read model rebuild failed, retrying", e);
+			try {
+				Thread.sleep(POLL_TIMEOUT_MILLIS);
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+		}
+	}
+}
@@ -1,9 +1,15 @@
+-- Seed rates only when the table is empty, so a file-backed database keeps the rates
+-- ingested at runtime across restarts (see application-file.properties)
 insert into currency_exchange
 (id,currency_from,currency_to,conversion_multiple,environment)
-values(10001,'USD','INR',65,'');
-insert into currency_exchange
-(id,currency_from,currency_to,conversion_multiple,environment)
-values(10002,'EUR','INR',75,'');
-insert into currency_exchange
-(id,currency_from,currency_to,conversion_multiple,environment)
-values(10003,'AUD','INR',25,'');
\ No newline at end of file
+select * from (values
+(10001,'USD','INR',65,''),
+(10002,'EUR','INR',75,''),
+(10003,'AUD','INR',25,''))
+as seed(id,currency_from,currency_to,conversion_multiple,environment)
+where not exists (select 1 from currency_exchange);
+
+insert into currency_exchange_history
+(currency_from,currency_to,conversion_multiple,effective_time)
+select currency_from,currency_to,conversion_multiple,current_timestamp from currency_exchange
+where not exists (select 1 from currency_exchange_history);
@@ -0,0 +1,124 @@
+package com.amit.microservices.currencyexchangeservice.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.HistoricalRate;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
+import com.amit.microservices.currencyexchangeservice.service.RateHistoryService;
+
+/*
+ * As-of reads against a large currency_exchange_history, next to a current-rate read.
+ * Setup fills the table with {rows} rows spread over 100 pairs (AAX-INR .. DVX-INR), one
+ * per pair per 100 seconds, then each call reads the next pair:
+ *   latest   - findAsOf at an instant after the newest row, served from the cached row
+ *   past     - findAsOf half way back in the history, one index seek
+ *   current  - the rate table, what GET /currency-exchange/from/{from}/to/{to} reads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class AsOfReadBenchmark {
+
+	private static final int PAIRS = 100;
+
+	private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+	@Param({ "100000", "2000000" })
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private RateHistoryService history;
+
+	private CurrencyExchangeRateTable rateTable;
+
+	private String[] from;
+
+	private long[] pairs;
+
+	private Instant after;
+
+	private Instant halfWay;
+
+	private int next;
+
+	@Setup
+	public void fill() {
+		context = ExchangeServiceContext.start();
+		history = context.getBean(RateHistoryService.class);
+		rateTable = context.getBean(CurrencyExchangeRateTable.class);
+
+		from = new String[PAIRS];
+		pairs = new long[PAIRS];
+		for (int i = 0; i < PAIRS; i++) {
+			from[i] = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26) + 'X';
+			pairs[i] = CurrencyPair.of(from[i], "INR");
+		}
+		context.getBean(JdbcTemplate.class).update("insert into currency_exchange_history"
+				+ " (currency_from, currency_to, conversion_multiple, effective_time)"
+				+ " select char(65 + mod(x, 100) / 26) || char(65 + mod(mod(x, 100), 26)) || 'X', 'INR',"
+				+ " 60 + mod(x, 1000) / 100.0, dateadd(second, x, timestamp with time zone '2020-01-01 00:00:00Z')"
+				+ " from system_range(1, ?)", rows);
+		after = START.plusSeconds(rows + 1L);
+		halfWay = START.plusSeconds(rows / 2);
+
+		// One rate per pair in the table, as the ingestion feed would leave it
+		List<ExchangeRate> current = new ArrayList<>();
+		for (String code : from) {
+			current.add(new ExchangeRate(null, code, "INR", BigDecimal.valueOf(65)));
+		}
+		rateTable.apply(current);
+	}
+
+	@TearDown
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public HistoricalRate latest() {
+		int i = next();
+		return history.findAsOf(from[i], "INR", after);
+	}
+
+	@Benchmark
+	public HistoricalRate past() {
+		int i = next();
+		return history.findAsOf(from[i], "INR", halfWay);
+	}
+
+	@Benchmark
+	public ExchangeRate current() {
+		return rateTable.find(pairs[next()]);
+	}
+
+	private int next() {
+		int i = next;
+		next = i == PAIRS - 1 ? 0 : i + 1;
+		return i;
+	}
+}
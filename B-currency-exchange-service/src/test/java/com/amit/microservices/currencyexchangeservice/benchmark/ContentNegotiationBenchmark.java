@@ -0,0 +1,103 @@
+package com.amit.microservices.currencyexchangeservice.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.amit.microservices.currencyexchangeservice.bean.BatchExchangeResponse;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchangeResponse;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyPairRequest;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Encode and decode cost of the exchange responses in each format the service offers,
+ * with mappers built the way BinaryContentNegotiationConfig builds them:
+ *   single - one GET /currency-exchange/from/USD/to/INR body
+ *   batch  - a POST /currency-exchange/batch body with 100 rates
+ * Payload sizes are printed once per fork. Decoding goes into a client-side view of the
+ * wire format, as C and the other callers do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ContentNegotiationBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	public String format;
+
+	@Param({ "single", "batch" })
+	public String body;
+
+	private ObjectMapper mapper;
+
+	private Object response;
+
+	private byte[] encoded;
+
+	@Setup
+	public void prepare() throws IOException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		mapper = switch (format) {
+			case "cbor" -> builder.factory(new CBORFactory()).build();
+			case "smile" -> builder.factory(new SmileFactory()).build();
+			default -> builder.build();
+		};
+		response = "batch".equals(body) ? batch(100) : rate(0);
+		encoded = mapper.writeValueAsBytes(response);
+		System.out.println(format + " " + body + ": " + encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return mapper.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public Object decode() throws IOException {
+		return "batch".equals(body)
+				? mapper.readValue(encoded, ClientBatch.class)
+				: mapper.readValue(encoded, ClientRate.class);
+	}
+
+	private static CurrencyExchangeResponse rate(int i) {
+		String from = "" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26) + 'X';
+		return new CurrencyExchangeResponse(new ExchangeRate(10001L + i, from, "INR", new BigDecimal("65.1234")),
+				"8000_Reading-Values-From-Rate-Table");
+	}
+
+	private static BatchExchangeResponse batch(int size) {
+		List<CurrencyExchangeResponse> rates = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			rates.add(rate(i));
+		}
+		return new BatchExchangeResponse(rates, List.of(new CurrencyPairRequest("XXX", "INR")));
+	}
+
+	public record ClientRate(Long id, String from, String to, BigDecimal conversionMultiple, String rateType,
+			String environment) {
+	}
+
+	public record ClientBatch(List<ClientRate> rates, List<CurrencyPairRequest> notFound) {
+	}
+}
@@ -0,0 +1,27 @@
+package com.amit.microservices.currencyexchangeservice.benchmark;
+
+import java.util.Arrays;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.amit.microservices.currencyexchangeservice.CurrencyExchangeServiceApplication;
+
+// The exchange service on a random port, without Eureka or the config server, for benchmarks
+final class ExchangeServiceContext {
+
+	private ExchangeServiceContext() {
+	}
+
+	// properties override application.properties and the active profile, like command-line arguments
+	static ConfigurableApplicationContext start(String... properties) {
+		return new SpringApplicationBuilder(CurrencyExchangeServiceApplication.class)
+				.properties("server.port=0",
+						"spring.cloud.config.enabled=false",
+						"spring.config.import=",
+						"eureka.client.enabled=false",
+						"spring.jpa.show-sql=false",
+						"logging.level.root=WARN")
+				.run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+	}
+}
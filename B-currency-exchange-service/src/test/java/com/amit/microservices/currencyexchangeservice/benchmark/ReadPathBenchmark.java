@@ -0,0 +1,83 @@
+package com.amit.microservices.currencyexchangeservice.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchange;
+import com.amit.microservices.currencyexchangeservice.bean.CurrencyExchangeResponse;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeRepository;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
+
+/*
+ * One GET /currency-exchange/from/USD/to/INR worth of work, without HTTP:
+ *   entity     - findByFromAndTo and setEnvironment on the managed entity, the original code
+ *   projection - the ExchangeRate constructor projection wrapped in a CurrencyExchangeResponse
+ *   rateTable  - the in-memory rate table the controller reads today
+ * Each database read runs in its own transaction, as it did per request. Run with
+ * -prof gc for bytes per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReadPathBenchmark {
+
+	private static final String TAG = "8000_benchmark";
+
+	private ConfigurableApplicationContext context;
+
+	private CurrencyExchangeRepository repository;
+
+	private CurrencyExchangeRateTable rateTable;
+
+	private TransactionTemplate transaction;
+
+	@Setup
+	public void start() {
+		context = ExchangeServiceContext.start();
+		repository = context.getBean(CurrencyExchangeRepository.class);
+		rateTable = context.getBean(CurrencyExchangeRateTable.class);
+		transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public CurrencyExchange entity() {
+		return transaction.execute(status -> {
+			CurrencyExchange exchange = repository.findByFromAndTo("USD", "INR");
+			exchange.setEnvironment(TAG);
+			return exchange;
+		});
+	}
+
+	@Benchmark
+	public CurrencyExchangeResponse projection() {
+		return transaction.execute(status -> new CurrencyExchangeResponse(repository.findRate("USD", "INR"), TAG));
+	}
+
+	@Benchmark
+	public CurrencyExchangeResponse rateTable() {
+		return new CurrencyExchangeResponse(rateTable.find(CurrencyPair.of("USD", "INR")), TAG);
+	}
+}
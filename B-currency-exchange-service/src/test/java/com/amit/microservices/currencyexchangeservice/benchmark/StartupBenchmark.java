@@ -0,0 +1,131 @@
+package com.amit.microservices.currencyexchangeservice.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
+
+/*
+ * Time from SpringApplication.run to a loaded rate table for each database setup:
+ *   mem        - the default in-memory H2, seeded by data.sql
+ *   file-empty - the file profile on a new database (first start, schema created)
+ *   file-warm  - the file profile restarting on a database that already holds 3,000
+ *                rates (150 base x 20 quote currencies) and 1,000,000 history rows
+ * Every iteration starts on a fresh copy of the database, so no run sees the previous
+ * run's writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class StartupBenchmark {
+
+	private static final String DATABASE = "currency-exchange.mv.db";
+
+	@Param({ "mem", "file-empty", "file-warm" })
+	public String database;
+
+	private Path template;
+
+	private Path working;
+
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void prepareTemplate() throws IOException {
+		template = Files.createTempDirectory("currency-exchange-template");
+		working = Files.createTempDirectory("currency-exchange");
+		if ("file-warm".equals(database)) {
+			try (ConfigurableApplicationContext seeded = ExchangeServiceContext.start(fileProfile(template))) {
+				fill(seeded.getBean(JdbcTemplate.class));
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void copyTemplate() throws IOException {
+		FileSystemUtils.deleteRecursively(working);
+		Files.createDirectories(working);
+		Path seeded = template.resolve(DATABASE);
+		if (Files.exists(seeded)) {
+			Files.copy(seeded, working.resolve(DATABASE), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void stop() {
+		if (context != null) {
+			context.close();
+			context = null;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteDatabases() throws IOException {
+		FileSystemUtils.deleteRecursively(template);
+		FileSystemUtils.deleteRecursively(working);
+	}
+
+	@Benchmark
+	public ExchangeRate start() {
+		context = "mem".equals(database)
+				? ExchangeServiceContext.start()
+				: ExchangeServiceContext.start(fileProfile(working));
+		ExchangeRate seeded = context.getBean(CurrencyExchangeRateTable.class).find(CurrencyPair.of("AAX", "QAY"));
+		if ("file-warm".equals(database) && seeded == null) {
+			throw new IllegalStateException("The warm database was not loaded");
+		}
+		return seeded;
+	}
+
+	private static String[] fileProfile(Path directory) {
+		return new String[] { "spring.profiles.active=file",
+				"spring.datasource.url=jdbc:h2:file:" + directory.resolve("currency-exchange")
+						+ ";CACHE_SIZE=65536;DB_CLOSE_ON_EXIT=FALSE" };
+	}
+
+	private static void fill(JdbcTemplate jdbc) {
+		List<Object[]> rates = new ArrayList<>();
+		long id = 20001;
+		for (int base = 0; base < 150; base++) {
+			for (int quote = 0; quote < 20; quote++) {
+				String from = "" + (char) ('A' + base / 26) + (char) ('A' + base % 26) + 'X';
+				String to = "Q" + (char) ('A' + quote) + "Y";
+				rates.add(new Object[] { id++, from, to, BigDecimal.valueOf(1 + base, 2).add(BigDecimal.valueOf(quote)) });
+			}
+		}
+		jdbc.batchUpdate("insert into currency_exchange (id, currency_from, currency_to, conversion_multiple, environment)"
+				+ " values (?, ?, ?, ?, '')", rates);
+		jdbc.update("insert into currency_exchange_history (currency_from, currency_to, conversion_multiple, effective_time)"
+				+ " select char(65 + mod(x, 150) / 26) || char(65 + mod(mod(x, 150), 26)) || 'X', 'Q' || char(65 + mod(x, 20)) || 'Y',"
+				+ " 60 + mod(x, 1000) / 100.0, dateadd(second, x, timestamp with time zone '2020-01-01 00:00:00Z')"
+				+ " from system_range(1, 1000000)");
+	}
+}
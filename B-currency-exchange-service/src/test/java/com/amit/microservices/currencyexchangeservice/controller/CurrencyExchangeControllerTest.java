@@ -0,0 +1,82 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.config.BinaryContentNegotiationConfig;
+import com.amit.microservices.currencyexchangeservice.service.CurrencyExchangeRateTable;
+
+@WebMvcTest(controllers = CurrencyExchangeController.class, properties = { "spring.config.import=",
+		"spring.cloud.config.enabled=false", "eureka.client.enabled=false" })
+@Import(BinaryContentNegotiationConfig.class)
+class CurrencyExchangeControllerTest {
+
+	private static final String USD_INR = "/currency-exchange/from/USD/to/INR";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private CurrencyExchangeRateTable rateTable;
+
+	@BeforeEach
+	void oneRate() {
+		when(rateTable.find(CurrencyPair.of("USD", "INR")))
+				.thenReturn(new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65")));
+		when(rateTable.etag(anyString())).thenAnswer(call -> "\"5a2d-" + call.getArgument(0) + "\"");
+	}
+
+	@Test
+	void eachFormatGetsItsOwnEtag() throws Exception {
+		String json = etag("application/json");
+		String cbor = etag("application/cbor");
+		String smile = etag("application/x-jackson-smile");
+
+		assertThat(json).endsWith("-json\"");
+		assertThat(cbor).endsWith("-cbor\"");
+		assertThat(smile).endsWith("-x-jackson-smile\"");
+		assertThat(etag("*/*")).isEqualTo(json);
+	}
+
+	@Test
+	void anEtagOnlyMatchesTheFormatItWasIssuedFor() throws Exception {
+		String json = etag("application/json");
+
+		mockMvc.perform(get(USD_INR).accept("application/json").header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get(USD_INR).accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void invalidPairsAreRejectedBeforeTheEtagCheck() throws Exception {
+		String json = etag("application/json");
+
+		mockMvc.perform(get("/currency-exchange/from/USDX/to/INR").header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String etag(String accept) throws Exception {
+		return mockMvc.perform(get(USD_INR).accept(accept))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.VARY, "Accept"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+}
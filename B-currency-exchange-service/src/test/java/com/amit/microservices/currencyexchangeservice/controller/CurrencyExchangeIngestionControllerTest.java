@@ -0,0 +1,129 @@
+package com.amit.microservices.currencyexchangeservice.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+/*
+ * POST /currency-exchange/ingest against the seeded in-memory database, with two rows
+ * per JDBC batch so every feed spans several chunks. Each test uses its own pairs.
+ */
+@SpringBootTest(properties = {
+		"spring.cloud.config.enabled=false",
+		"spring.config.import=",
+		"eureka.client.enabled=false",
+		"spring.jpa.show-sql=false",
+		"spring.datasource.url=jdbc:h2:mem:ingestion-test",
+		"currency-exchange.ingest.batch-size=2" })
+@AutoConfigureMockMvc
+class CurrencyExchangeIngestionControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void feedIsUpsertedAndReportedPerRow() throws Exception {
+		long history = historyRows("GBP");
+
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.content("""
+						{"from":"usd","to":"INR","conversionMultiple":80}
+						{"from":"GBP","to":"INR","conversionMultiple":100}
+						{"from":"GBP","to":"INR","conversionMultiple":101}
+						{"from":"USD","to":"INR","conversionMultiple":81}
+						{"from":"GBP","to":"USD","conversionMultiple":1.25}
+						"""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows").value(5))
+				// GBP->INR is inserted by the first chunk and only updated by the second
+				.andExpect(jsonPath("$.inserted").value(2))
+				.andExpect(jsonPath("$.updated").value(1));
+
+		assertThat(rate("USD", "INR")).isEqualByComparingTo("81");
+		assertThat(rate("GBP", "INR")).isEqualByComparingTo("101");
+		assertThat(rate("GBP", "USD")).isEqualByComparingTo("1.25");
+		assertThat(jdbcTemplate.queryForObject(
+				"select count(*) from currency_exchange where currency_from = 'GBP' and currency_to = 'INR'", Long.class))
+				.isEqualTo(1);
+		// every row of the feed, repeats included, is in the history
+		assertThat(historyRows("GBP") - history).isEqualTo(3);
+	}
+
+	@Test
+	void jsonArrayIsAccepted() throws Exception {
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"from\":\"JPY\",\"to\":\"INR\",\"conversionMultiple\":0.55}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows").value(1))
+				.andExpect(jsonPath("$.inserted").value(1));
+
+		assertThat(rate("JPY", "INR")).isEqualByComparingTo("0.55");
+	}
+
+	@Test
+	void malformedBodyIsBadRequest() throws Exception {
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"from\":"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("not json"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void malformedLaterRowIsBadRequestAndRollsTheFeedBack() throws Exception {
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.content("""
+						{"from":"CHF","to":"INR","conversionMultiple":90}
+						{"from":"CAD","to":"INR","conversionMultiple":60}
+						{"from":"SEK","to":"INR","conversionMultiple":
+						"""))
+				.andExpect(status().isBadRequest());
+
+		assertThat(jdbcTemplate.queryForObject(
+				"select count(*) from currency_exchange where currency_from in ('CHF', 'CAD')", Long.class)).isZero();
+		assertThat(historyRows("CHF")).isZero();
+	}
+
+	@Test
+	void invalidRowIsBadRequest() throws Exception {
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.content("{\"from\":\"NOK\",\"to\":\"INR\",\"conversionMultiple\":-1}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/currency-exchange/ingest")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.content("{\"from\":\"NOK\",\"to\":\"INR\",\"rate\":8}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private BigDecimal rate(String from, String to) {
+		return jdbcTemplate.queryForObject(
+				"select conversion_multiple from currency_exchange where currency_from = ? and currency_to = ?",
+				BigDecimal.class, from, to);
+	}
+
+	private long historyRows(String from) {
+		return jdbcTemplate.queryForObject("select count(*) from currency_exchange_history where currency_from = ?",
+				Long.class, from);
+	}
+}
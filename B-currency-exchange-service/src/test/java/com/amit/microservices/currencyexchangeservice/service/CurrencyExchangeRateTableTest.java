@@ -0,0 +1,98 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CurrencyExchangeRateTableTest {
+
+	private static final ExchangeRate USD_INR = new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65"));
+	private static final ExchangeRate EUR_INR = new ExchangeRate(10002L, "EUR", "INR", new BigDecimal("75"));
+
+	private final CurrencyExchangeRepository repository = mock(CurrencyExchangeRepository.class);
+
+	private CurrencyExchangeRateTable table;
+
+	@BeforeEach
+	void shardedOnUsd() {
+		when(repository.findAllRates()).thenReturn(List.of(USD_INR, EUR_INR));
+		when(repository.findRate("EUR", "INR")).thenReturn(EUR_INR);
+		table = new CurrencyExchangeRateTable(repository, mock(OffHeapRateStore.class),
+				mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), List.of("USD"), 100,
+				Duration.ofMinutes(1));
+		table.reload();
+	}
+
+	@Test
+	void ownedPairsAreServedFromMemory() {
+		assertThat(table.find(CurrencyPair.of("USD", "INR"))).isEqualTo(USD_INR);
+
+		verify(repository, never()).findRate("USD", "INR");
+	}
+
+	@Test
+	void offShardPairsAreReadFromTheDatabaseOnce() {
+		assertThat(table.find(CurrencyPair.of("EUR", "INR"))).isEqualTo(EUR_INR);
+		assertThat(table.find(CurrencyPair.of("EUR", "INR"))).isEqualTo(EUR_INR);
+
+		verify(repository, times(1)).findRate("EUR", "INR");
+	}
+
+	@Test
+	void unknownOffShardPairsAreCachedAsMisses() {
+		assertThat(table.find(CurrencyPair.of("GBP", "JPY"))).isNull();
+		assertThat(table.find(CurrencyPair.of("GBP", "JPY"))).isNull();
+
+		verify(repository, times(1)).findRate("GBP", "JPY");
+	}
+
+	@Test
+	void writesDropCachedOffShardRates() {
+		table.find(CurrencyPair.of("EUR", "INR"));
+
+		ExchangeRate updated = new ExchangeRate(null, "EUR", "INR", new BigDecimal("76"));
+		when(repository.findRate("EUR", "INR")).thenReturn(new ExchangeRate(10002L, "EUR", "INR", new BigDecimal("76")));
+		table.apply(List.of(updated));
+
+		assertThat(table.find(CurrencyPair.of("EUR", "INR")).conversionMultiple()).isEqualByComparingTo("76");
+		verify(repository, times(2)).findRate("EUR", "INR");
+	}
+
+	@Test
+	void etagsDifferPerVariantOfTheSameTable() {
+		String etag = table.etag();
+
+		assertThat(table.etag("8000_tag")).startsWith(etag.substring(0, etag.length() - 1)).endsWith("-8000_tag\"");
+		assertThat(table.etag("8000_tag")).isNotEqualTo(table.etag("8001_tag"));
+	}
+
+	@Test
+	void offHeapReaderFallsBackToTheDatabaseWhenTheFileIsUnreadable() {
+		OffHeapRateStore offHeapStore = mock(OffHeapRateStore.class);
+		when(offHeapStore.isReader()).thenReturn(true);
+		when(offHeapStore.readDirectRates()).thenReturn(null);
+		CurrencyExchangeRateTable reader = new CurrencyExchangeRateTable(repository, offHeapStore,
+				mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), List.of(), 100, Duration.ofMinutes(1));
+
+		reader.reload();
+
+		assertThat(reader.find(CurrencyPair.of("EUR", "INR"))).isEqualTo(EUR_INR);
+	}
+}
@@ -0,0 +1,137 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+import com.amit.microservices.currencyexchangeservice.bean.RateType;
+
+/*
+ * Writer and reader instances sharing one file. Slots are poked directly (64 byte
+ * header, 48 byte slots starting with seq and pair) to simulate a writer that died
+ * in the middle of a slot.
+ */
+class OffHeapRateStoreTest {
+
+	private static final int SLOTS = 16;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readerSeesTheDirectRatesOfTheWriter() {
+		OffHeapRateStore writer = store("writer");
+		writer.onRatesChanged(new ExchangeRatesChangedEvent(List.of(
+				new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65.25")),
+				new ExchangeRate(null, "INR", "USD", new BigDecimal("0.0153"), RateType.DERIVED))));
+
+		OffHeapRateStore reader = store("reader");
+
+		assertThat(reader.generation()).isEqualTo(1);
+		assertThat(reader.readDirectRates()).containsExactly(new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65.25")));
+	}
+
+	@Test
+	void updatesKeepTheirSlotAndCollidingPairsFillTheTable() {
+		OffHeapRateStore writer = store("writer");
+		List<ExchangeRate> rates = new ArrayList<>();
+		String[] codes = { "USD", "EUR", "INR", "GBP", "JPY" };
+		for (String from : codes) {
+			for (String to : codes) {
+				if (!from.equals(to) && rates.size() < SLOTS) {
+					rates.add(new ExchangeRate((long) rates.size() + 1, from, to, BigDecimal.ONE));
+				}
+			}
+		}
+		writer.onRatesChanged(new ExchangeRatesChangedEvent(rates));
+		// every slot is taken now: an update finds its pair, a new pair is dropped
+		writer.onRatesChanged(new ExchangeRatesChangedEvent(List.of(
+				new ExchangeRate(1L, "USD", "EUR", new BigDecimal("0.9")),
+				new ExchangeRate(99L, "JPY", "GBP", BigDecimal.TEN))));
+
+		List<ExchangeRate> read = store("reader").readDirectRates();
+
+		assertThat(read).hasSize(SLOTS);
+		assertThat(read).contains(new ExchangeRate(1L, "USD", "EUR", new BigDecimal("0.9")));
+		assertThat(read).extracting(ExchangeRate::id).doesNotContain(99L);
+	}
+
+	@Test
+	void slotLeftOddByADeadWriterMakesTheReaderGiveUp() throws IOException {
+		store("writer").onRatesChanged(new ExchangeRatesChangedEvent(List.of(
+				new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65")))));
+		setSeq(CurrencyPair.of("USD", "INR"), 3);
+
+		long start = System.nanoTime();
+		assertThat(store("reader").readDirectRates()).isNull();
+		assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+	}
+
+	@Test
+	void reopeningWriterUnlocksOddSlotsAndKeepsTheirParity() throws IOException {
+		store("writer").onRatesChanged(new ExchangeRatesChangedEvent(List.of(
+				new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65")))));
+		setSeq(CurrencyPair.of("USD", "INR"), 3);
+
+		OffHeapRateStore restarted = store("writer");
+		assertThat(seq(CurrencyPair.of("USD", "INR"))).isEqualTo(4);
+
+		restarted.onRatesChanged(new ExchangeRatesChangedEvent(List.of(
+				new ExchangeRate(10001L, "USD", "INR", new BigDecimal("66")))));
+		assertThat(seq(CurrencyPair.of("USD", "INR"))).isEqualTo(6);
+		assertThat(store("reader").readDirectRates())
+				.containsExactly(new ExchangeRate(10001L, "USD", "INR", new BigDecimal("66")));
+	}
+
+	private OffHeapRateStore store(String mode) {
+		return new OffHeapRateStore(mode, file().toString(), SLOTS);
+	}
+
+	private Path file() {
+		return directory.resolve("rates.dat");
+	}
+
+	private long seq(long pair) throws IOException {
+		try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return longs(mapped).getLong(slotOf(mapped, pair));
+		}
+	}
+
+	private void setSeq(long pair, long seq) throws IOException {
+		try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			longs(mapped).putLong(slotOf(mapped, pair), seq);
+			mapped.force();
+		}
+	}
+
+	// Byte offset of the slot holding pair
+	private static int slotOf(MappedByteBuffer mapped, long pair) {
+		ByteBuffer longs = longs(mapped);
+		for (int base = 64; base < longs.capacity(); base += 48) {
+			if (longs.getLong(base + 8) == pair) {
+				return base;
+			}
+		}
+		throw new AssertionError("No slot for " + CurrencyPair.toString(pair));
+	}
+
+	private static ByteBuffer longs(MappedByteBuffer mapped) {
+		return mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
@@ -0,0 +1,92 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.amit.microservices.currencyexchangeservice.bean.TimeSeriesFootprint;
+
+// catchUp() against an H2 history table holding rows from before and inside the retention window
+class RateAggregationServiceTest {
+
+	private final JdbcTemplate jdbcTemplate = spy(new JdbcTemplate(
+			new DriverManagerDataSource("jdbc:h2:mem:aggregation-test;DB_CLOSE_DELAY=-1", "sa", "")));
+
+	private final RateAggregationService service = new RateAggregationService(jdbcTemplate, Duration.ofDays(30), 2);
+
+	@BeforeEach
+	void createHistory() {
+		jdbcTemplate.execute("create table currency_exchange_history (id bigint generated by default as identity primary key,"
+				+ " currency_from varchar(255), currency_to varchar(255), conversion_multiple numeric(38, 2),"
+				+ " effective_time timestamp(6) with time zone)");
+		jdbcTemplate.execute("create index ix_currency_exchange_history_time on currency_exchange_history (effective_time, id)");
+	}
+
+	@AfterEach
+	void dropHistory() {
+		jdbcTemplate.execute("drop table currency_exchange_history");
+	}
+
+	@Test
+	void firstRunStartsAtTheRetentionWindow() {
+		OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+		for (int i = 0; i < 3; i++) {
+			insert("USD", "INR", now.minusDays(40));
+		}
+		insert("USD", "INR", now.minusDays(1));
+		insert("EUR", "INR", now.minusHours(1));
+		insert("USD", "INR", now);
+
+		service.catchUp();
+
+		TimeSeriesFootprint footprint = service.footprint();
+		assertThat(footprint.ticks()).isEqualTo(3);
+		assertThat(footprint.pairs()).isEqualTo(2);
+		// the tail starts after the last row before the window: the three old rows are never read
+		verify(jdbcTemplate).query(startsWith("select id, currency_from"), any(RowMapper.class), eq(3L), eq(2));
+		verify(jdbcTemplate, never()).query(startsWith("select id, currency_from"), any(RowMapper.class), eq(0L), eq(2));
+	}
+
+	@Test
+	void laterRunsOnlyReadNewRows() {
+		OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+		insert("USD", "INR", now.minusDays(40));
+		insert("USD", "INR", now.minusMinutes(5));
+		service.catchUp();
+
+		insert("USD", "INR", now);
+		service.catchUp();
+
+		assertThat(service.footprint().ticks()).isEqualTo(2);
+		verify(jdbcTemplate).query(startsWith("select id, currency_from"), any(RowMapper.class), eq(2L), eq(2));
+	}
+
+	@Test
+	void emptyWindowReadsNothing() {
+		insert("USD", "INR", OffsetDateTime.now(ZoneOffset.UTC).minusDays(40));
+
+		service.catchUp();
+
+		assertThat(service.footprint().ticks()).isZero();
+	}
+
+	private void insert(String from, String to, OffsetDateTime effectiveTime) {
+		jdbcTemplate.update("insert into currency_exchange_history (currency_from, currency_to, conversion_multiple,"
+				+ " effective_time) values (?, ?, 65, ?)", from, to, effectiveTime);
+	}
+}
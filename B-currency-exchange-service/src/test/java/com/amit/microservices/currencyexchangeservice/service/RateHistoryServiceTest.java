@@ -0,0 +1,80 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.amit.microservices.currencyexchangeservice.bean.HistoricalRate;
+import com.amit.microservices.currencyexchangeservice.repository.CurrencyExchangeHistoryRepository;
+
+class RateHistoryServiceTest {
+
+	private static final Instant FEED_TIME = Instant.parse("2026-01-31T10:00:00Z");
+
+	private static final HistoricalRate LATEST = new HistoricalRate("USD", "INR", new BigDecimal("65"), FEED_TIME);
+
+	private final CurrencyExchangeHistoryRepository repository = mock(CurrencyExchangeHistoryRepository.class);
+
+	private final ReadModelProjector projector = mock(ReadModelProjector.class);
+
+	private final RateChangeLog changeLog = mock(RateChangeLog.class);
+
+	private final RateHistoryService historyService = new RateHistoryService(repository, projector, changeLog, 100, 100);
+
+	@BeforeEach
+	void caughtUp() {
+		when(projector.appliedOffset()).thenReturn(3L);
+		when(changeLog.endOffset()).thenReturn(3L);
+		when(repository.findLatest(eq("USD"), eq("INR"), any(Pageable.class))).thenReturn(List.of(LATEST));
+	}
+
+	@Test
+	void latestPeriodIsServedFromMemory() {
+		assertThat(historyService.findAsOf("USD", "INR", FEED_TIME)).isEqualTo(LATEST);
+		assertThat(historyService.findAsOf("usd", "inr", FEED_TIME.plusSeconds(60))).isEqualTo(LATEST);
+
+		verify(repository, times(1)).findLatest(eq("USD"), eq("INR"), any(Pageable.class));
+		verify(repository, never()).findAsOf(any(), any(), any(), any());
+	}
+
+	@Test
+	void olderInstantsGoToTheHistoryIndex() {
+		historyService.findAsOf("USD", "INR", FEED_TIME.minusSeconds(1));
+
+		verify(repository).findAsOf(eq("USD"), eq("INR"), eq(FEED_TIME.minusSeconds(1)), any(Pageable.class));
+	}
+
+	@Test
+	void appliedWritesReplaceTheCachedRow() {
+		historyService.findAsOf("USD", "INR", FEED_TIME);
+
+		when(projector.appliedOffset()).thenReturn(4L);
+		when(changeLog.endOffset()).thenReturn(4L);
+		historyService.findAsOf("USD", "INR", FEED_TIME);
+
+		verify(repository, times(2)).findLatest(eq("USD"), eq("INR"), any(Pageable.class));
+	}
+
+	@Test
+	void writesNotYetAppliedBypassTheCache() {
+		historyService.findAsOf("USD", "INR", FEED_TIME);
+
+		when(changeLog.endOffset()).thenReturn(4L);
+		historyService.findAsOf("USD", "INR", FEED_TIME.plusSeconds(60));
+
+		verify(repository).findAsOf(eq("USD"), eq("INR"), eq(FEED_TIME.plusSeconds(60)), any(Pageable.class));
+	}
+}
@@ -0,0 +1,109 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.amit.microservices.currencyexchangeservice.bean.ExchangeRate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Two sender threads and a 100 ms send timeout. Stalled clients are emitters whose
+ * send blocks until the test ends and ignores interrupts, like a write to a peer that
+ * stopped reading.
+ */
+class RateSubscriptionServiceTest {
+
+	private static final ExchangeRate USD_INR = new ExchangeRate(10001L, "USD", "INR", new BigDecimal("65"));
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final RateSubscriptionService service = new RateSubscriptionService(2, 16, 100, meterRegistry);
+
+	private final CountDownLatch unblock = new CountDownLatch(1);
+
+	@AfterEach
+	void stop() {
+		unblock.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void stalledSubscribersDoNotStarveTheOthers() throws InterruptedException {
+		service.subscribe(new StalledEmitter(), Set.of(), List.of(USD_INR));
+		service.subscribe(new StalledEmitter(), Set.of(), List.of(USD_INR));
+		RecordingEmitter healthy = new RecordingEmitter();
+		service.subscribe(healthy, Set.of(), List.of(USD_INR));
+
+		// both sender threads are stuck, so the healthy subscriber's send is still queued
+		Thread.sleep(200);
+		assertThat(healthy.events).isEmpty();
+
+		service.dropStalledSubscribers();
+
+		assertThat(healthy.awaitEvents(1)).isTrue();
+		assertThat(meterRegistry.get("currency.exchange.subscriptions.sends").tag("result", "stalled").counter().count())
+				.isEqualTo(2);
+		assertThat(meterRegistry.get("currency.exchange.subscriptions.active").gauge().value()).isEqualTo(1);
+	}
+
+	@Test
+	void sendsWithinTheTimeoutAreKept() throws InterruptedException {
+		RecordingEmitter healthy = new RecordingEmitter();
+		service.subscribe(healthy, Set.of(), List.of(USD_INR));
+		assertThat(healthy.awaitEvents(1)).isTrue();
+
+		service.dropStalledSubscribers();
+		service.onRatesChanged(new ExchangeRatesChangedEvent(List.of(new ExchangeRate(10001L, "USD", "INR", BigDecimal.TEN))));
+
+		assertThat(healthy.awaitEvents(2)).isTrue();
+		assertThat(meterRegistry.get("currency.exchange.subscriptions.active").gauge().value()).isEqualTo(1);
+	}
+
+	private final class StalledEmitter extends SseEmitter {
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			boolean interrupted = false;
+			while (unblock.getCount() > 0) {
+				try {
+					unblock.await();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final List<SseEventBuilder> events = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			events.add(builder);
+		}
+
+		boolean awaitEvents(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+			while (events.size() < count && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			return events.size() >= count;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.amit.microservices.currencyexchangeservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.amit.microservices.currencyexchangeservice.bean.OhlcBar;
+
+class RateTimeSeriesTest {
+
+	private static final long MINUTE = 60_000;
+
+	private final RateTimeSeries series = new RateTimeSeries();
+
+	@Test
+	void averageIsExactAcrossSealedAndOpenBlocks() {
+		// 0.1, 0.2, 0.1, 0.2, ... : a double sum drifts, the scaled sum does not
+		int ticks = RateTimeSeries.BLOCK_SIZE * 3 + 1;
+		for (int i = 0; i < ticks; i++) {
+			series.append(i, i % 2 == 0 ? 10_000_000L : 20_000_000L);
+		}
+
+		List<OhlcBar> bars = bars(0, ticks, ticks);
+
+		assertThat(bars).hasSize(1);
+		assertThat(bars.get(0).ticks()).isEqualTo(ticks);
+		// (1537 * 0.1 + 1536 * 0.2) / 3073
+		assertThat(bars.get(0).average()).isEqualByComparingTo("0.14998373");
+	}
+
+	@Test
+	void averageDoesNotOverflowTheScaledSum() {
+		series.append(0, Long.MAX_VALUE - 1);
+		series.append(1, Long.MAX_VALUE - 1);
+
+		assertThat(bars(0, 2, 2).get(0).average().unscaledValue().longValueExact()).isEqualTo(Long.MAX_VALUE - 1);
+	}
+
+	@Test
+	void olderTicksAreRejected() {
+		assertThat(series.append(2 * MINUTE, 1)).isTrue();
+		assertThat(series.append(MINUTE, 2)).isFalse();
+		assertThat(series.append(2 * MINUTE, 3)).isTrue();
+
+		assertThat(series.ticks()).isEqualTo(2);
+	}
+
+	@Test
+	void evictionDropsOldBlocksAndTheOldHeadOfTheOpenBlock() {
+		int ticks = RateTimeSeries.BLOCK_SIZE * 2 + 10;
+		for (int i = 0; i < ticks; i++) {
+			series.append(i * MINUTE, 100_000_000L);
+		}
+
+		// the first block goes; the second starts exactly at the cutoff and stays
+		series.evictBefore(RateTimeSeries.BLOCK_SIZE * MINUTE);
+		assertThat(series.ticks()).isEqualTo(RateTimeSeries.BLOCK_SIZE + 10);
+		assertThat(series.sealedBlocks()).isEqualTo(1);
+
+		series.evictBefore((ticks - 4) * MINUTE);
+		assertThat(series.ticks()).isEqualTo(4);
+		assertThat(series.sealedBlocks()).isZero();
+		assertThat(bars(0, ticks * MINUTE, MINUTE)).hasSize(4);
+	}
+
+	private List<OhlcBar> bars(long start, long end, long bucketMillis) {
+		OhlcBuckets buckets = new OhlcBuckets(bucketMillis);
+		series.aggregate(start, end, buckets);
+		return buckets.bars();
+	}
+}
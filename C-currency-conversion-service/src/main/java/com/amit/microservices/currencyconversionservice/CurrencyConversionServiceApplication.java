@@ -2,10 +2,14 @@ package com.amit.microservices.currencyconversionservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
+import com.amit.microservices.currencyconversionservice.loadbalancer.LatencyAwareLoadBalancerConfig;
+
 @SpringBootApplication
 @EnableFeignClients
+@LoadBalancerClient(name = "currency-exchange", configuration = LatencyAwareLoadBalancerConfig.class)
 public class CurrencyConversionServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,7 @@
+package com.amit.microservices.currencyconversionservice.bean;
+
+import java.util.List;
+
+// Result of a batch conversion; distinctPairs is the number of rates that had to be looked up
+public record BatchConversionResponse(List<ConversionResult> conversions, int distinctPairs, int failed) {
+}
@@ -0,0 +1,7 @@
+package com.amit.microservices.currencyconversionservice.bean;
+
+import java.math.BigDecimal;
+
+// One position of a batch conversion
+public record ConversionRequest(String from, String to, BigDecimal quantity) {
+}
@@ -0,0 +1,12 @@
+package com.amit.microservices.currencyconversionservice.bean;
+
+import java.math.BigDecimal;
+
+// Outcome of one position of a batch conversion: either the amounts or an error, in request order
+public record ConversionResult(String from, String to, BigDecimal quantity, BigDecimal conversionMultiple,
+		BigDecimal totalCalculatedAmount, String error) {
+
+	public static ConversionResult failed(ConversionRequest request, String error) {
+		return new ConversionResult(request.from(), request.to(), request.quantity(), null, null, error);
+	}
+}
@@ -0,0 +1,80 @@
+package com.amit.microservices.currencyconversionservice.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/*
+ * One shared RestTemplate for the /currency-conversion path.
+ *
+ * It runs on a pooled Apache HttpClient 5, so connections to the exchange instances are
+ * kept alive and reused instead of opened per request, and it is @LoadBalanced, so
+ * http://currency-exchange/... is resolved through Eureka like the Feign client.
+ * Pool usage is published as httpcomponents.httpclient.pool.* metrics.
+ */
+@Configuration
+public class ExchangeRestTemplateConfig {
+
+	private static final String POOL_NAME = "currency-exchange";
+
+	@Bean
+	public PoolingHttpClientConnectionManager exchangeConnectionManager(
+			@Value("${currency-conversion.exchange-client.max-connections-per-route:50}") int maxPerRoute,
+			@Value("${currency-conversion.exchange-client.max-connections-total:200}") int maxTotal,
+			@Value("${currency-conversion.exchange-client.connect-timeout:1000}") long connectTimeoutMillis,
+			@Value("${currency-conversion.exchange-client.read-timeout:3000}") long readTimeoutMillis) {
+		return PoolingHttpClientConnectionManagerBuilder.create()
+				.setMaxConnPerRoute(maxPerRoute)
+				.setMaxConnTotal(maxTotal)
+				.setDefaultConnectionConfig(ConnectionConfig.custom()
+						.setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+						.setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+						.build())
+				.build();
+	}
+
+	@Bean
+	public CloseableHttpClient exchangeHttpClient(PoolingHttpClientConnectionManager exchangeConnectionManager,
+			@Value("${currency-conversion.exchange-client.read-timeout:3000}") long readTimeoutMillis,
+			@Value("${currency-conversion.exchange-client.pool-timeout:500}") long poolTimeoutMillis,
+			@Value("${currency-conversion.exchange-client.keep-alive:30000}") long keepAliveMillis) {
+		return HttpClients.custom()
+				.setConnectionManager(exchangeConnectionManager)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						// how long a request may wait for a free pooled connection
+						.setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMillis))
+						.setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+						// used when the server does not send a Keep-Alive header
+						.setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMillis))
+						.build())
+				.evictExpiredConnections()
+				.evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMillis))
+				.build();
+	}
+
+	@Bean
+	@LoadBalanced
+	public RestTemplate exchangeRestTemplate(RestTemplateBuilder builder, CloseableHttpClient exchangeHttpClient) {
+		return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(exchangeHttpClient)).build();
+	}
+
+	@Bean
+	public MeterBinder exchangeConnectionPoolMetrics(PoolingHttpClientConnectionManager exchangeConnectionManager) {
+		return new PoolingHttpClientConnectionManagerMetricsBinder(exchangeConnectionManager, POOL_NAME);
+	}
+}
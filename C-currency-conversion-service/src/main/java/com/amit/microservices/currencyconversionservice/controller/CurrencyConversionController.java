@@ -1,40 +1,62 @@
 package com.amit.microservices.currencyconversionservice.controller;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriTemplate;
 
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
+import com.amit.microservices.currencyconversionservice.bean.BatchConversionResponse;
+import com.amit.microservices.currencyconversionservice.bean.ConversionRequest;
 import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
-import com.amit.microservices.currencyconversionservice.proxy.CurrencyExchangeProxy;
+import com.amit.microservices.currencyconversionservice.service.BatchConversionService;
+import com.amit.microservices.currencyconversionservice.service.ExchangeRateCache;
 
 @RestController
 public class CurrencyConversionController {
 
+	// Parsed once; "currency-exchange" is the Eureka service id, resolved by the load-balanced RestTemplate
+	private static final UriTemplate EXCHANGE_URI = new UriTemplate("http://currency-exchange/currency-exchange/from/{from}/to/{to}");
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private ExchangeRateCache rateCache;
+
 	@Autowired
-	private CurrencyExchangeProxy proxy;
+	private BatchConversionService batchConversionService;
+
+	@Value("${currency-conversion.batch.max-size:1000}")
+	private int batchMaxSize;
 
 	@GetMapping("/currency-conversion/from/{from}/to/{to}/quantity/{quantity}")
 	public CurrencyConversion calculateCurrencyConversion(@PathVariable String from, @PathVariable String to,
 			@PathVariable BigDecimal quantity) {
 
-		HashMap<String, String> uriVariables = new HashMap<>();
-		uriVariables.put("from", from);
-		uriVariables.put("to", to);
+		from = CurrencyPair.normalize(from);
+		to = CurrencyPair.normalize(to);
 
-		ResponseEntity<CurrencyConversion> responseEntity = new RestTemplate().getForEntity(
-				"http://localhost:8000/currency-exchange/from/{from}/to/{to}", CurrencyConversion.class, uriVariables);
+		ResponseEntity<CurrencyConversion> responseEntity = restTemplate.getForEntity(EXCHANGE_URI.expand(from, to),
+				CurrencyConversion.class);
 
 		CurrencyConversion currencyConversion = responseEntity.getBody();
 
 		return new CurrencyConversion(currencyConversion.getId(), from, to, quantity,
 				currencyConversion.getConversionMultiple(),
-				quantity.multiply(currencyConversion.getConversionMultiple()),
+				FixedPointMoney.multiply(quantity, currencyConversion.getConversionMultiple()),
 				currencyConversion.getEnvironment() + " " + "Using-Rest-Template");
 	}
 
@@ -42,11 +64,29 @@ public class CurrencyConversionController {
 	public CurrencyConversion calculateCurrencyConversionFeign(@PathVariable String from, @PathVariable String to,
 			@PathVariable BigDecimal quantity) {
 
-		CurrencyConversion currencyConversion = proxy.retrieveExchangeValue(from, to);
+		from = CurrencyPair.normalize(from);
+		to = CurrencyPair.normalize(to);
+
+		CurrencyConversion currencyConversion = rateCache.get(from, to);
 
 		return new CurrencyConversion(currencyConversion.getId(), from, to, quantity,
 				currencyConversion.getConversionMultiple(),
-				quantity.multiply(currencyConversion.getConversionMultiple()),
+				FixedPointMoney.multiply(quantity, currencyConversion.getConversionMultiple()),
 				currencyConversion.getEnvironment() + " " + "Using-Feign-Client");
 	}
+
+	/*
+	 * Converts a list of positions in one call, e.g.
+	 *   [{"from":"USD","to":"INR","quantity":10},{"from":"EUR","to":"INR","quantity":5}]
+	 * Results come back in request order; a position that fails carries an error instead
+	 * of failing the batch.
+	 */
+	@PostMapping("/currency-conversion/batch")
+	public BatchConversionResponse calculateCurrencyConversions(@RequestBody List<ConversionRequest> positions) {
+		if (positions.size() > batchMaxSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Batch of " + positions.size() + " positions exceeds the limit of " + batchMaxSize);
+		}
+		return batchConversionService.convert(positions);
+	}
 }
@@ -0,0 +1,53 @@
+package com.amit.microservices.currencyconversionservice.controller;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyconversionservice.service.ExchangeRateCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/*
+ * Admin access to the exchange rate cache:
+ *   GET    /actuator/ratecache          size and statistics
+ *   DELETE /actuator/ratecache          drop every cached rate
+ *   DELETE /actuator/ratecache/USD-INR  drop one pair
+ */
+@Component
+@Endpoint(id = "ratecache")
+public class ExchangeRateCacheEndpoint {
+
+	private final ExchangeRateCache rateCache;
+
+	public ExchangeRateCacheEndpoint(ExchangeRateCache rateCache) {
+		this.rateCache = rateCache;
+	}
+
+	@ReadOperation
+	public Map<String, Object> statistics() {
+		CacheStats stats = rateCache.stats();
+		return Map.of(
+				"size", rateCache.size(),
+				"hitRate", stats.hitRate(),
+				"loads", stats.loadCount(),
+				"loadFailures", stats.loadFailureCount(),
+				"averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0,
+				"evictions", stats.evictionCount());
+	}
+
+	@DeleteOperation
+	public void invalidateAll() {
+		rateCache.invalidateAll();
+	}
+
+	@DeleteOperation
+	public void invalidate(@Selector String pair) {
+		long key = CurrencyPair.parse(pair);
+		rateCache.invalidate(CurrencyPair.decode(CurrencyPair.from(key)), CurrencyPair.decode(CurrencyPair.to(key)));
+	}
+}
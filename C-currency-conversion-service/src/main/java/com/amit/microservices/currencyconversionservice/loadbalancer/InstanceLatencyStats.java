@@ -0,0 +1,161 @@
+package com.amit.microservices.currencyconversionservice.loadbalancer;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Per-instance latency and in-flight counts, fed by LatencyRecordingLifecycle and read
+ * by LatencyAwareLoadBalancer.
+ *
+ * Latency is an exponentially weighted moving average whose weight depends on the time
+ * since the previous sample (time constant `window`), so it reacts equally fast at 10
+ * and at 10,000 requests per second. Every instance is published as
+ * currency.conversion.loadbalancer.latency and .in.flight, tagged with instance=host:port,
+ * until it leaves discovery (see retain).
+ */
+@Component
+public class InstanceLatencyStats {
+
+	// Floor for the latency used in a score, so an instance without samples yet is not free to pile onto
+	private static final double MIN_LATENCY_NANOS = 1_000_000;
+
+	private final MeterRegistry meterRegistry;
+
+	private final double windowNanos;
+
+	private final LongSupplier nanoClock;
+
+	private final ConcurrentHashMap<String, Stats> instances = new ConcurrentHashMap<>();
+
+	@Autowired
+	public InstanceLatencyStats(MeterRegistry meterRegistry,
+			@Value("${currency-conversion.loadbalancer.latency-window:10000}") long windowMillis) {
+		this(meterRegistry, windowMillis, System::nanoTime);
+	}
+
+	InstanceLatencyStats(MeterRegistry meterRegistry, long windowMillis, LongSupplier nanoClock) {
+		this.meterRegistry = meterRegistry;
+		this.windowNanos = windowMillis * 1_000_000.0;
+		this.nanoClock = nanoClock;
+	}
+
+	public void requestStarted(ServiceInstance instance) {
+		stats(instance).inFlight.incrementAndGet();
+	}
+
+	public void requestFinished(ServiceInstance instance, long latencyNanos) {
+		// A call that outlived its instance's registration is not worth bringing the gauges back for
+		Stats stats = instances.get(key(instance));
+		if (stats != null) {
+			stats.inFlight.decrementAndGet();
+			stats.record(latencyNanos, nanoClock.getAsLong(), windowNanos);
+		}
+	}
+
+	// Forgets instances that are no longer discovered, together with their gauges
+	public void retain(Collection<ServiceInstance> current) {
+		Set<String> keys = current.stream().map(InstanceLatencyStats::key).collect(Collectors.toSet());
+		instances.entrySet().removeIf(entry -> {
+			if (keys.contains(entry.getKey())) {
+				return false;
+			}
+			meterRegistry.remove(entry.getValue().latencyGauge);
+			meterRegistry.remove(entry.getValue().inFlightGauge);
+			return true;
+		});
+	}
+
+	/*
+	 * Expected cost of sending one more request: latency times queue length. An instance
+	 * that has not answered for a few windows decays towards the floor, so an instance
+	 * that was slow once is tried again instead of being avoided forever.
+	 */
+	public double score(ServiceInstance instance) {
+		Stats stats = stats(instance);
+		double idle = nanoClock.getAsLong() - stats.lastSampleNanos;
+		double latency = stats.ewmaNanos * Math.exp(-idle / (3 * windowNanos));
+		return Math.max(latency, MIN_LATENCY_NANOS) * (stats.inFlight.get() + 1);
+	}
+
+	double latencyMillis(ServiceInstance instance) {
+		return stats(instance).ewmaNanos / 1_000_000.0;
+	}
+
+	int inFlight(ServiceInstance instance) {
+		return stats(instance).inFlight.get();
+	}
+
+	boolean isTracked(ServiceInstance instance) {
+		return instances.containsKey(key(instance));
+	}
+
+	private Stats stats(ServiceInstance instance) {
+		String key = key(instance);
+		Stats stats = instances.get(key);
+		if (stats == null) {
+			stats = instances.computeIfAbsent(key, this::register);
+		}
+		return stats;
+	}
+
+	private static String key(ServiceInstance instance) {
+		return instance.getHost() + ":" + instance.getPort();
+	}
+
+	private Stats register(String key) {
+		Stats stats = new Stats(nanoClock.getAsLong());
+		stats.latencyGauge = Gauge.builder("currency.conversion.loadbalancer.latency", stats, s -> s.ewmaNanos / 1_000_000.0)
+				.description("Moving average of the response time of an exchange instance")
+				.baseUnit("milliseconds")
+				.tag("instance", key)
+				.register(meterRegistry);
+		stats.inFlightGauge = Gauge.builder("currency.conversion.loadbalancer.in.flight", stats, s -> s.inFlight.get())
+				.description("Requests outstanding on an exchange instance")
+				.tag("instance", key)
+				.register(meterRegistry);
+		return stats;
+	}
+
+	private static final class Stats {
+
+		final AtomicInteger inFlight = new AtomicInteger();
+
+		// Written under the lock, read without it: a slightly stale score is fine for picking
+		volatile double ewmaNanos;
+
+		volatile long lastSampleNanos;
+
+		private boolean sampled;
+
+		Gauge latencyGauge;
+
+		Gauge inFlightGauge;
+
+		Stats(long now) {
+			this.lastSampleNanos = now;
+		}
+
+		synchronized void record(long latencyNanos, long now, double windowNanos) {
+			if (!sampled) {
+				ewmaNanos = latencyNanos;
+				sampled = true;
+			} else {
+				double weight = 1 - Math.exp(-(now - lastSampleNanos) / windowNanos);
+				ewmaNanos += weight * (latencyNanos - ewmaNanos);
+			}
+			lastSampleNanos = now;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.amit.microservices.currencyconversionservice.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * Power-of-two-choices load balancer.
+ *
+ * Two distinct instances are drawn at random and the one with the lower score
+ * (moving-average latency times outstanding requests, see InstanceLatencyStats) gets
+ * the request. A slow or pausing instance builds up latency and in-flight requests and
+ * stops being picked, while the random draw still spreads load over the healthy ones
+ * instead of piling everything onto the single fastest instance.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+	private final ObjectProvider<ServiceInstanceListSupplier> instanceSuppliers;
+
+	private final InstanceLatencyStats latencyStats;
+
+	private final Supplier<RandomGenerator> random;
+
+	// The supplier hands out the same list until discovery refreshes, so this only changes with membership
+	private volatile List<ServiceInstance> knownInstances;
+
+	public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instanceSuppliers,
+			InstanceLatencyStats latencyStats) {
+		this(instanceSuppliers, latencyStats, ThreadLocalRandom::current);
+	}
+
+	LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instanceSuppliers,
+			InstanceLatencyStats latencyStats, Supplier<RandomGenerator> random) {
+		this.instanceSuppliers = instanceSuppliers;
+		this.latencyStats = latencyStats;
+		this.random = random;
+	}
+
+	@Override
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		ServiceInstanceListSupplier supplier = instanceSuppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+		return supplier.get(request).next().map(this::choose);
+	}
+
+	Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+		if (instances != knownInstances) {
+			knownInstances = instances;
+			latencyStats.retain(instances);
+		}
+		if (instances.isEmpty()) {
+			return new EmptyResponse();
+		}
+		if (instances.size() == 1) {
+			return new DefaultResponse(instances.get(0));
+		}
+		RandomGenerator random = this.random.get();
+		int first = random.nextInt(instances.size());
+		int second = random.nextInt(instances.size() - 1);
+		if (second >= first) {
+			second++;
+		}
+		ServiceInstance a = instances.get(first);
+		ServiceInstance b = instances.get(second);
+		return new DefaultResponse(latencyStats.score(a) <= latencyStats.score(b) ? a : b);
+	}
+}
@@ -0,0 +1,32 @@
+package com.amit.microservices.currencyconversionservice.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/*
+ * Load balancer configuration for the currency-exchange client, registered with
+ * @LoadBalancerClient (not annotated with @Configuration so other clients keep the
+ * default round robin).
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+	@Bean
+	public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+			LoadBalancerClientFactory loadBalancerClientFactory, InstanceLatencyStats latencyStats) {
+		String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new LatencyAwareLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), latencyStats);
+	}
+
+	@Bean
+	public LoadBalancerLifecycle<?, ?, ?> latencyRecordingLifecycle(InstanceLatencyStats latencyStats,
+			@Value("${currency-conversion.loadbalancer.failure-penalty:1000}") long failurePenaltyMillis) {
+		return new LatencyRecordingLifecycle(latencyStats, failurePenaltyMillis);
+	}
+}
@@ -0,0 +1,68 @@
+package com.amit.microservices.currencyconversionservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+/*
+ * Feeds InstanceLatencyStats from every load-balanced call (Feign and RestTemplate).
+ *
+ * A failed call counts as at least failurePenaltyNanos, otherwise an instance that
+ * refuses connections straight away would look like the fastest one.
+ */
+public class LatencyRecordingLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+	private final InstanceLatencyStats latencyStats;
+
+	private final long failurePenaltyNanos;
+
+	public LatencyRecordingLifecycle(InstanceLatencyStats latencyStats, long failurePenaltyMillis) {
+		this.latencyStats = latencyStats;
+		this.failurePenaltyNanos = failurePenaltyMillis * 1_000_000;
+	}
+
+	// LoadBalancerLifecycle declares raw Class parameters, so Class<?> would not override it
+	@Override
+	@SuppressWarnings("rawtypes")
+	public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+		return RequestDataContext.class.isAssignableFrom(requestContextClass)
+				&& ResponseData.class.isAssignableFrom(responseClass)
+				&& ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<RequestDataContext> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+		if (!lbResponse.hasServer()) {
+			return;
+		}
+		RequestDataContext context = request.getContext();
+		if (context != null) {
+			context.setRequestStartTime(System.nanoTime());
+		}
+		latencyStats.requestStarted(lbResponse.getServer());
+	}
+
+	@Override
+	public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+		if (lbResponse == null || !lbResponse.hasServer() || request == null || request.getContext() == null
+				|| request.getContext().getRequestStartTime() == 0) {
+			return;
+		}
+		RequestDataContext context = request.getContext();
+		long latency = System.nanoTime() - context.getRequestStartTime();
+		if (completionContext.status() != CompletionContext.Status.SUCCESS) {
+			latency = Math.max(latency, failurePenaltyNanos);
+		}
+		latencyStats.requestFinished(lbResponse.getServer(), latency);
+	}
+}
@@ -0,0 +1,106 @@
+package com.amit.microservices.currencyconversionservice.proxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Single-flight front of CurrencyExchangeProxy.
+ *
+ * The first caller for a pair makes the remote call; callers for the same pair that
+ * arrive while it is outstanding wait for that call and get its result (or its
+ * exception) instead of sending their own. A waiter gives up after maxWait and calls
+ * the exchange service itself, so one hung call cannot hold every request for a pair.
+ * Nothing is kept once the call completes; caching is ExchangeRateCache's job.
+ */
+@Component
+public class CoalescingCurrencyExchangeClient {
+
+	private final CurrencyExchangeProxy proxy;
+
+	private final HedgingCurrencyExchangeClient hedgingClient;
+
+	private final long maxWaitMillis;
+
+	private final ConcurrentHashMap<Long, CompletableFuture<CurrencyConversion>> inFlight = new ConcurrentHashMap<>();
+
+	private final Counter leaders;
+
+	private final Counter coalesced;
+
+	private final Counter waitTimeouts;
+
+	public CoalescingCurrencyExchangeClient(CurrencyExchangeProxy proxy, HedgingCurrencyExchangeClient hedgingClient,
+			MeterRegistry meterRegistry,
+			@Value("${currency-conversion.exchange-client.coalescing.max-wait:2000}") long maxWaitMillis) {
+		this.proxy = proxy;
+		this.hedgingClient = hedgingClient;
+		this.maxWaitMillis = maxWaitMillis;
+		this.leaders = Counter.builder("currency.conversion.exchange.calls")
+				.description("Rate lookups towards the exchange service")
+				.tag("result", "sent")
+				.register(meterRegistry);
+		this.coalesced = Counter.builder("currency.conversion.exchange.calls")
+				.description("Rate lookups towards the exchange service")
+				.tag("result", "coalesced")
+				.register(meterRegistry);
+		this.waitTimeouts = Counter.builder("currency.conversion.exchange.calls")
+				.description("Rate lookups towards the exchange service")
+				.tag("result", "wait-timeout")
+				.register(meterRegistry);
+	}
+
+	public CurrencyConversion retrieveExchangeValue(String from, String to) {
+		long pair = CurrencyPair.of(from, to);
+		CompletableFuture<CurrencyConversion> call = new CompletableFuture<>();
+		CompletableFuture<CurrencyConversion> outstanding = inFlight.putIfAbsent(pair, call);
+		if (outstanding != null) {
+			coalesced.increment();
+			return await(outstanding, from, to);
+		}
+
+		leaders.increment();
+		try {
+			CurrencyConversion result = fetch(from, to);
+			call.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(pair, call);
+		}
+	}
+
+	private CurrencyConversion fetch(String from, String to) {
+		return hedgingClient.isEnabled() ? hedgingClient.retrieveExchangeValue(from, to) : proxy.retrieveExchangeValue(from, to);
+	}
+
+	private CurrencyConversion await(CompletableFuture<CurrencyConversion> outstanding, String from, String to) {
+		try {
+			return outstanding.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			waitTimeouts.increment();
+			return fetch(from, to);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for the rate of " + from + " to " + to, e);
+		}
+	}
+}
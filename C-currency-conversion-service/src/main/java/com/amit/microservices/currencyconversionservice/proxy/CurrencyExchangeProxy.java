@@ -8,7 +8,7 @@ import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
 
 
 //@FeignClient(name="currency-exchange", url="localhost:8000")
-@FeignClient(name="currency-exchange")
+@FeignClient(name="currency-exchange", configuration = CurrencyExchangeProxyConfig.class)
 public interface CurrencyExchangeProxy {
 	
 	@GetMapping("/currency-exchange/from/{from}/to/{to}")
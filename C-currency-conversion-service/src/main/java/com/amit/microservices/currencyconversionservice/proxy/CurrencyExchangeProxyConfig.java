@@ -0,0 +1,24 @@
+package com.amit.microservices.currencyconversionservice.proxy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+
+import feign.RequestInterceptor;
+
+/*
+ * Feign configuration used only by CurrencyExchangeProxy (not annotated with
+ * @Configuration so it does not leak into other Feign clients).
+ *
+ * Sets the Accept header of the service-to-service call, e.g. application/cbor to have
+ * the exchange service answer in CBOR instead of JSON. Feign decodes the reply with the
+ * same message converters as the web layer, which include CBOR and Smile.
+ */
+public class CurrencyExchangeProxyConfig {
+
+	@Bean
+	public RequestInterceptor currencyExchangeAcceptHeader(
+			@Value("${currency-conversion.exchange-client.media-type:application/json}") String mediaType) {
+		return template -> template.header(HttpHeaders.ACCEPT, mediaType);
+	}
+}
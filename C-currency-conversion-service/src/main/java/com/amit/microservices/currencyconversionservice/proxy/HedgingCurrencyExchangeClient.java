@@ -0,0 +1,402 @@
+package com.amit.microservices.currencyconversionservice.proxy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+import com.amit.microservices.currencyconversionservice.loadbalancer.InstanceLatencyStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Hedged calls to currency-exchange (opt-in with currency-conversion.hedging.enabled).
+ *
+ * The request goes to the instance picked by the load balancer. If it has not answered
+ * after the hedge delay, the recent `percentile` latency of these calls, the same
+ * request is sent to the best other instance known to Eureka. The first response wins
+ * and the other request is aborted, which closes its connection. A 4xx answer is final
+ * and is not hedged; a failed attempt leaves the other one to answer, and a primary that
+ * fails (5xx or I/O) before the hedge delay is retried once on another instance.
+ * Errors surface as the same Feign exceptions the CurrencyExchangeProxy path throws.
+ *
+ * Attempts run on a bounded pool (`threads`, with `queue` waiting tasks).
+ *
+ * Hedges are paid for from a token bucket that earns `budget` tokens per request (0.05
+ * = at most 5% extra requests, with a small burst), so a slow exchange service cannot
+ * double the load on itself. Outcomes are counted in currency.conversion.hedges.
+ *
+ * Both calls go over the pooled HttpClient of the RestTemplate path, without Feign,
+ * because the hedge needs to know which instance the first request went to.
+ */
+@Component
+public class HedgingCurrencyExchangeClient {
+
+	private static final String SERVICE_ID = "currency-exchange";
+
+	private static final double MAX_TOKENS = 10;
+
+	// Feign's config key of CurrencyExchangeProxy#retrieveExchangeValue, used in error messages
+	private static final String METHOD_KEY = "CurrencyExchangeProxy#retrieveExchangeValue(String,String)";
+
+	private final boolean enabled;
+
+	private final LoadBalancerClient loadBalancer;
+
+	private final DiscoveryClient discoveryClient;
+
+	private final CloseableHttpClient httpClient;
+
+	private final ObjectMapper objectMapper;
+
+	private final InstanceLatencyStats latencyStats;
+
+	private final ThreadPoolExecutor attempts;
+
+	private final LatencyWindow latencies;
+
+	private final long minDelayMillis;
+
+	private final double budget;
+
+	private double tokens = MAX_TOKENS;
+
+	private final Counter fired;
+
+	private final Counter won;
+
+	private final Counter overBudget;
+
+	private final Counter rejected;
+
+	private final Counter failedOver;
+
+	public HedgingCurrencyExchangeClient(LoadBalancerClient loadBalancer, DiscoveryClient discoveryClient,
+			CloseableHttpClient exchangeHttpClient, ObjectMapper objectMapper, InstanceLatencyStats latencyStats,
+			MeterRegistry meterRegistry,
+			@Value("${currency-conversion.hedging.enabled:false}") boolean enabled,
+			@Value("${currency-conversion.hedging.percentile:0.95}") double percentile,
+			@Value("${currency-conversion.hedging.min-delay:20}") long minDelayMillis,
+			@Value("${currency-conversion.hedging.budget:0.05}") double budget,
+			@Value("${currency-conversion.hedging.threads:64}") int threads,
+			@Value("${currency-conversion.hedging.queue:256}") int queue) {
+		this.enabled = enabled;
+		this.loadBalancer = loadBalancer;
+		this.discoveryClient = discoveryClient;
+		this.httpClient = exchangeHttpClient;
+		this.objectMapper = objectMapper;
+		this.latencyStats = latencyStats;
+		this.attempts = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue));
+		this.latencies = new LatencyWindow(1024, percentile);
+		this.minDelayMillis = minDelayMillis;
+		this.budget = budget;
+		this.fired = Counter.builder("currency.conversion.hedges")
+				.description("Hedged requests to currency-exchange")
+				.tag("result", "fired")
+				.register(meterRegistry);
+		this.won = Counter.builder("currency.conversion.hedges")
+				.description("Hedged requests to currency-exchange")
+				.tag("result", "won")
+				.register(meterRegistry);
+		this.overBudget = Counter.builder("currency.conversion.hedges")
+				.description("Hedged requests to currency-exchange")
+				.tag("result", "over-budget")
+				.register(meterRegistry);
+		this.rejected = Counter.builder("currency.conversion.hedges")
+				.description("Hedged requests to currency-exchange")
+				.tag("result", "rejected")
+				.register(meterRegistry);
+		this.failedOver = Counter.builder("currency.conversion.hedges")
+				.description("Hedged requests to currency-exchange")
+				.tag("result", "failed-over")
+				.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		attempts.shutdownNow();
+	}
+
+	public CurrencyConversion retrieveExchangeValue(String from, String to) {
+		ServiceInstance primary = loadBalancer.choose(SERVICE_ID);
+		if (primary == null) {
+			// what Feign's load balancer client answers when there is no instance
+			throw FeignException.errorStatus(METHOD_KEY, response(HttpStatus.SERVICE_UNAVAILABLE,
+					"Load balancer does not contain an instance for the service " + SERVICE_ID,
+					request("http://" + SERVICE_ID + path(from, to))));
+		}
+		earnToken();
+
+		CompletableFuture<CurrencyConversion> result = new CompletableFuture<>();
+		Attempt first = start(primary, from, to, result, false);
+		Attempt second = null;
+		try {
+			try {
+				await(result, first.outcome(), hedgeDelayMillis());
+			} catch (TimeoutException slow) {
+				ServiceInstance other = alternative(primary);
+				if (other != null && spendToken()) {
+					second = start(other, from, to, result, true);
+				} else if (other != null) {
+					overBudget.increment();
+				}
+			}
+			if (second == null && !result.isDone() && first.outcome().isCompletedExceptionally()
+					&& retryable(first.outcome())) {
+				// the primary failed before the hedge delay: try another instance instead of failing the call
+				ServiceInstance other = alternative(primary);
+				if (other != null) {
+					failedOver.increment();
+					second = start(other, from, to, result, false);
+				}
+			}
+			CompletableFuture<?> allFailed = second == null ? first.outcome()
+					: CompletableFuture.allOf(first.outcome(), second.outcome());
+			await(result, allFailed, Long.MAX_VALUE);
+			// an attempt completes `result` before its own outcome, so a success is always seen here
+			return result.isDone() ? result.get() : (second == null ? first : second).outcome().get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for the rate of " + from + " to " + to, e);
+		} catch (TimeoutException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			first.abort();
+			if (second != null) {
+				second.abort();
+			}
+		}
+	}
+
+	// Waits until the result is in or `other` completes, whichever is first
+	private static void await(CompletableFuture<CurrencyConversion> result, CompletableFuture<?> other, long timeoutMillis)
+			throws InterruptedException, TimeoutException {
+		try {
+			CompletableFuture.anyOf(result, other).get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			// failures are read from the futures themselves
+		}
+	}
+
+	// 5xx answers, connection failures and unreadable bodies are worth another instance; a 4xx is final
+	private static boolean retryable(CompletableFuture<CurrencyConversion> outcome) {
+		try {
+			outcome.getNow(null);
+			return false;
+		} catch (CompletionException e) {
+			return !(e.getCause() instanceof FeignException f && f.status() >= 400 && f.status() < 500);
+		}
+	}
+
+	/*
+	 * Runs one call on the attempts pool. A success completes `result`, and a 4xx completes
+	 * it exceptionally since any instance would answer the same; either way the attempt's
+	 * own outcome completes afterwards. Errors are raised as the Feign path raises them:
+	 * FeignException.errorStatus for an error status and RetryableException for I/O failures.
+	 * When the pool is saturated a hedge is not sent (null is returned), while a primary
+	 * or failover attempt runs on the caller thread, which then cannot hedge it.
+	 */
+	private Attempt start(ServiceInstance instance, String from, String to, CompletableFuture<CurrencyConversion> result,
+			boolean hedge) {
+		String url = instance.getUri().resolve(path(from, to)).toString();
+		HttpGet httpGet = new HttpGet(url);
+		httpGet.setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+		Attempt attempt = new Attempt(httpGet, new CompletableFuture<>());
+		Runnable call = () -> {
+			latencyStats.requestStarted(instance);
+			long start = System.nanoTime();
+			try {
+				CurrencyConversion conversion = httpClient.execute(httpGet, response -> {
+					int status = response.getCode();
+					if (status >= 400) {
+						byte[] body = response.getEntity() == null ? new byte[0]
+								: EntityUtils.toByteArray(response.getEntity());
+						throw FeignException.errorStatus(METHOD_KEY, Response.builder()
+								.status(status)
+								.reason(response.getReasonPhrase())
+								.request(request(url))
+								.headers(Map.of())
+								.body(body)
+								.build());
+					}
+					return objectMapper.readValue(response.getEntity().getContent(), CurrencyConversion.class);
+				});
+				long elapsed = System.nanoTime() - start;
+				latencyStats.requestFinished(instance, elapsed);
+				latencies.record(elapsed);
+				if (result.complete(conversion) && hedge) {
+					won.increment();
+				}
+				attempt.outcome().complete(conversion);
+			} catch (IOException e) {
+				// an aborted loser also ends up here; by then the result is complete already
+				latencyStats.requestFinished(instance, System.nanoTime() - start);
+				attempt.outcome().completeExceptionally(retryableException(url, e));
+			} catch (RuntimeException failure) {
+				latencyStats.requestFinished(instance, System.nanoTime() - start);
+				if (failure instanceof FeignException f && f.status() >= 400 && f.status() < 500) {
+					result.completeExceptionally(failure);
+				}
+				attempt.outcome().completeExceptionally(failure);
+			}
+		};
+		try {
+			attempts.execute(call);
+			if (hedge) {
+				fired.increment();
+			}
+		} catch (RejectedExecutionException e) {
+			if (hedge) {
+				rejected.increment();
+				return null;
+			}
+			call.run();
+		}
+		return attempt;
+	}
+
+	private static String path(String from, String to) {
+		return "/currency-exchange/from/" + from + "/to/" + to;
+	}
+
+	private static Request request(String url) {
+		return Request.create(Request.HttpMethod.GET, url, Map.of(), null, StandardCharsets.UTF_8, null);
+	}
+
+	private static Response response(HttpStatus status, String reason, Request request) {
+		return Response.builder().status(status.value()).reason(reason).request(request).headers(Map.of()).build();
+	}
+
+	// The exception Feign raises when the request could not be executed
+	private static RetryableException retryableException(String url, IOException cause) {
+		return new RetryableException(-1, cause.getMessage() + " executing GET " + url, Request.HttpMethod.GET, cause,
+				(Long) null, request(url));
+	}
+
+	// Lowest scoring instance other than the primary, or null with a single instance
+	private ServiceInstance alternative(ServiceInstance primary) {
+		List<ServiceInstance> instances = discoveryClient.getInstances(SERVICE_ID);
+		ServiceInstance best = null;
+		for (ServiceInstance instance : instances) {
+			if (instance.getHost().equals(primary.getHost()) && instance.getPort() == primary.getPort()) {
+				continue;
+			}
+			if (best == null || latencyStats.score(instance) < latencyStats.score(best)) {
+				best = instance;
+			}
+		}
+		return best;
+	}
+
+	private long hedgeDelayMillis() {
+		long observed = TimeUnit.NANOSECONDS.toMillis(latencies.percentileNanos());
+		return Math.max(observed, minDelayMillis);
+	}
+
+	private synchronized void earnToken() {
+		tokens = Math.min(MAX_TOKENS, tokens + budget);
+	}
+
+	private synchronized boolean spendToken() {
+		if (tokens < 1) {
+			return false;
+		}
+		tokens--;
+		return true;
+	}
+
+	private record Attempt(HttpGet request, CompletableFuture<CurrencyConversion> outcome) {
+
+		// Aborting a finished request does nothing; a running one has its connection closed
+		void abort() {
+			request.cancel();
+		}
+	}
+
+	/*
+	 * Latencies of the last `size` successful calls. The percentile is recomputed at most
+	 * once a second, so the hedge delay costs two volatile reads per request.
+	 */
+	private static final class LatencyWindow {
+
+		private static final long REFRESH_NANOS = 1_000_000_000L;
+
+		private final long[] samples;
+
+		private final double percentile;
+
+		private int next;
+
+		private int count;
+
+		private volatile long cached;
+
+		private volatile long refreshAt = System.nanoTime();
+
+		LatencyWindow(int size, double percentile) {
+			this.samples = new long[size];
+			this.percentile = percentile;
+		}
+
+		synchronized void record(long nanos) {
+			samples[next] = nanos;
+			next = (next + 1) % samples.length;
+			count = Math.min(count + 1, samples.length);
+		}
+
+		long percentileNanos() {
+			long now = System.nanoTime();
+			if (now - refreshAt < 0) {
+				return cached;
+			}
+			synchronized (this) {
+				if (count > 0 && now - refreshAt >= 0) {
+					long[] sorted = Arrays.copyOf(samples, count);
+					Arrays.sort(sorted);
+					cached = sorted[Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count) - 1))];
+					refreshAt = now + REFRESH_NANOS;
+				}
+				return cached;
+			}
+		}
+	}
+}
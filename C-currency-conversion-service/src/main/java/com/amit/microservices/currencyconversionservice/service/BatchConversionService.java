@@ -0,0 +1,141 @@
+package com.amit.microservices.currencyconversionservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
+import com.amit.microservices.currencyconversionservice.bean.BatchConversionResponse;
+import com.amit.microservices.currencyconversionservice.bean.ConversionRequest;
+import com.amit.microservices.currencyconversionservice.bean.ConversionResult;
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Converts many positions in one call.
+ *
+ * The positions are collapsed to their distinct currency pairs first, so a portfolio
+ * of a thousand USD->INR lines costs one rate lookup. The lookups go through the rate
+ * cache and run in parallel on a fixed pool of fetch threads, shared by all batches,
+ * which bounds the load batches put on the exchange service. Lookups wait in a bounded
+ * queue; when it is full the lookup is rejected instead of piling up behind the other
+ * batches. A position that is invalid, whose lookup was rejected, or whose rate cannot
+ * be fetched within the batch timeout, gets an error entry; the others are still
+ * converted.
+ *
+ * A fetch is a blocking HTTP call that does not react to interrupts, so a timed out
+ * lookup that is already running keeps its thread until the exchange client's own
+ * timeouts end it. Only lookups still waiting in the queue are skipped.
+ */
+@Service
+public class BatchConversionService {
+
+	private final ExchangeRateCache rateCache;
+
+	private final ThreadPoolExecutor fetchers;
+
+	private final long timeoutMillis;
+
+	public BatchConversionService(ExchangeRateCache rateCache,
+			@Value("${currency-conversion.batch.fetch-threads:8}") int fetchThreads,
+			@Value("${currency-conversion.batch.fetch-queue:1000}") int fetchQueue,
+			@Value("${currency-conversion.batch.timeout:5000}") long timeoutMillis) {
+		this.rateCache = rateCache;
+		this.fetchers = new ThreadPoolExecutor(fetchThreads, fetchThreads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(fetchQueue));
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		fetchers.shutdownNow();
+	}
+
+	public BatchConversionResponse convert(List<ConversionRequest> requests) {
+		// packed pair of each position; positions rejected up front only get an error
+		long[] pairs = new long[requests.size()];
+		String[] errors = new String[requests.size()];
+		Map<Long, CompletableFuture<CurrencyConversion>> lookups = new HashMap<>();
+		for (int i = 0; i < requests.size(); i++) {
+			ConversionRequest request = requests.get(i);
+			if (request == null || request.quantity() == null
+					|| !CurrencyPair.isValid(request.from()) || !CurrencyPair.isValid(request.to())) {
+				errors[i] = "Position needs a valid from, to and quantity";
+				continue;
+			}
+			long pair = CurrencyPair.of(request.from(), request.to());
+			pairs[i] = pair;
+			lookups.computeIfAbsent(pair, this::lookup);
+		}
+
+		Map<Long, CurrencyConversion> rates = new HashMap<>();
+		Map<Long, String> failures = new HashMap<>();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		for (Map.Entry<Long, CompletableFuture<CurrencyConversion>> lookup : lookups.entrySet()) {
+			try {
+				long remaining = Math.max(0, deadline - System.nanoTime());
+				rates.put(lookup.getKey(), lookup.getValue().get(remaining, TimeUnit.NANOSECONDS));
+			} catch (ExecutionException e) {
+				failures.put(lookup.getKey(), describe(lookup.getKey(), e.getCause()));
+			} catch (TimeoutException e) {
+				// skips the fetch if it is still queued; a running one cannot be stopped from here
+				lookup.getValue().cancel(false);
+				failures.put(lookup.getKey(), "Timed out fetching the rate for " + CurrencyPair.toString(lookup.getKey()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failures.put(lookup.getKey(), "Interrupted fetching the rate for " + CurrencyPair.toString(lookup.getKey()));
+			}
+		}
+
+		List<ConversionResult> results = new ArrayList<>(requests.size());
+		int failed = 0;
+		for (int i = 0; i < requests.size(); i++) {
+			ConversionRequest request = requests.get(i);
+			String error = errors[i] != null ? errors[i] : failures.get(pairs[i]);
+			if (error != null) {
+				results.add(request == null ? new ConversionResult(null, null, null, null, null, error)
+						: ConversionResult.failed(request, error));
+				failed++;
+				continue;
+			}
+			CurrencyConversion rate = rates.get(pairs[i]);
+			results.add(new ConversionResult(CurrencyPair.decode(CurrencyPair.from(pairs[i])),
+					CurrencyPair.decode(CurrencyPair.to(pairs[i])), request.quantity(), rate.getConversionMultiple(),
+					FixedPointMoney.multiply(request.quantity(), rate.getConversionMultiple()), null));
+		}
+		return new BatchConversionResponse(results, lookups.size(), failed);
+	}
+
+	private CompletableFuture<CurrencyConversion> lookup(long pair) {
+		try {
+			return CompletableFuture.supplyAsync(() -> rateCache.get(CurrencyPair.decode(CurrencyPair.from(pair)),
+					CurrencyPair.decode(CurrencyPair.to(pair))), fetchers);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private static String describe(long pair, Throwable cause) {
+		if (cause instanceof RejectedExecutionException) {
+			return "Too many rate lookups in progress, not fetching the rate for " + CurrencyPair.toString(pair);
+		}
+		if (cause instanceof FeignException.NotFound) {
+			return "No rate for " + CurrencyPair.toString(pair);
+		}
+		return "Could not fetch the rate for " + CurrencyPair.toString(pair) + ": " + cause.getMessage();
+	}
+}
@@ -0,0 +1,79 @@
+package com.amit.microservices.currencyconversionservice.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+import com.amit.microservices.currencyconversionservice.proxy.CoalescingCurrencyExchangeClient;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Client-side cache of exchange rates, keyed by packed CurrencyPair.
+ *
+ * An entry read after refreshAfter is reloaded in the background while the cached
+ * rate is still returned, so a pair that is used regularly is never fetched on the
+ * request thread again. A rate is dropped expireAfter after it was loaded, so a failed
+ * refresh keeps serving the old rate until then, but never longer. Hit rate, load latency and evictions are
+ * published as cache.* metrics with cache=currency-exchange-rates.
+ */
+@Service
+public class ExchangeRateCache {
+
+	static final String CACHE_NAME = "currency-exchange-rates";
+
+	private final LoadingCache<Long, CurrencyConversion> rates;
+
+	private final CoalescingCurrencyExchangeClient exchangeClient;
+
+	private final boolean enabled;
+
+	public ExchangeRateCache(CoalescingCurrencyExchangeClient exchangeClient, MeterRegistry meterRegistry,
+			@Value("${currency-conversion.rate-cache.enabled:true}") boolean enabled,
+			@Value("${currency-conversion.rate-cache.maximum-size:10000}") long maximumSize,
+			@Value("${currency-conversion.rate-cache.refresh-after:30000}") long refreshAfterMillis,
+			@Value("${currency-conversion.rate-cache.expire-after:300000}") long expireAfterMillis) {
+		this.exchangeClient = exchangeClient;
+		this.enabled = enabled;
+		this.rates = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.refreshAfterWrite(Duration.ofMillis(refreshAfterMillis))
+				.expireAfterWrite(Duration.ofMillis(expireAfterMillis))
+				.recordStats()
+				.build(pair -> exchangeClient.retrieveExchangeValue(CurrencyPair.decode(CurrencyPair.from(pair)),
+						CurrencyPair.decode(CurrencyPair.to(pair))));
+		CaffeineCacheMetrics.monitor(meterRegistry, rates, CACHE_NAME);
+	}
+
+	// Cached rate of a pair; only the first request for a pair (or one after expiry) waits for the exchange service
+	public CurrencyConversion get(String from, String to) {
+		if (!enabled) {
+			// every request goes to the exchange service; concurrent ones for a pair still share a call
+			return exchangeClient.retrieveExchangeValue(from, to);
+		}
+		return rates.get(CurrencyPair.of(from, to));
+	}
+
+	public void invalidate(String from, String to) {
+		rates.invalidate(CurrencyPair.of(from, to));
+	}
+
+	public void invalidateAll() {
+		rates.invalidateAll();
+	}
+
+	public long size() {
+		return rates.estimatedSize();
+	}
+
+	public CacheStats stats() {
+		return rates.stats();
+	}
+}
@@ -0,0 +1,153 @@
+package com.amit.microservices.currencyconversionservice.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+/*
+ * Harness for LatencyAwareLoadBalancer on a simulated clock: a request arrives every
+ * millisecond, is sent to the instance the load balancer picks and completes after that
+ * instance's fixed response time, reported the way LatencyRecordingLifecycle does.
+ * The clock and the random draws are both fixed, so every run makes the same picks.
+ */
+class LatencyAwareLoadBalancerTest {
+
+	private static final int REQUESTS = 400;
+
+	private static final long MILLIS = 1_000_000;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final InstanceLatencyStats latencyStats = new InstanceLatencyStats(meterRegistry, 10_000, clock::get);
+
+	@Test
+	void slowInstanceGetsLittleTraffic() {
+		ServiceInstance fast1 = instance("fast-1", 8001);
+		ServiceInstance fast2 = instance("fast-2", 8002);
+		ServiceInstance slow = instance("slow", 8003);
+
+		Map<String, AtomicInteger> picks = drive(List.of(fast1, fast2, slow), Map.of(fast1, 5L, fast2, 5L, slow, 200L));
+
+		// round robin would send a third (about 133 requests) to the slow instance
+		assertThat(picks.get("slow").get()).isLessThan(REQUESTS / 10);
+		assertThat(picks.get("fast-1").get()).isGreaterThan(REQUESTS / 4);
+		assertThat(picks.get("fast-2").get()).isGreaterThan(REQUESTS / 4);
+		assertThat(latencyStats.latencyMillis(slow)).isGreaterThan(latencyStats.latencyMillis(fast1));
+		assertThat(latencyStats.inFlight(slow)).isZero();
+	}
+
+	@Test
+	void equallyFastInstancesShareTheLoad() {
+		ServiceInstance a = instance("a", 8001);
+		ServiceInstance b = instance("b", 8002);
+		ServiceInstance c = instance("c", 8003);
+
+		Map<String, AtomicInteger> picks = drive(List.of(a, b, c), Map.of(a, 5L, b, 5L, c, 5L));
+
+		for (String id : List.of("a", "b", "c")) {
+			assertThat(picks.get(id).get()).isGreaterThan(REQUESTS / 6);
+		}
+	}
+
+	@Test
+	void noInstancesGiveAnEmptyResponse() {
+		Response<ServiceInstance> response = new LatencyAwareLoadBalancer(provider(List.of()), latencyStats)
+				.choose(new DefaultRequest<>()).block();
+
+		assertThat(response.hasServer()).isFalse();
+	}
+
+	@Test
+	void instancesThatLeaveLoseTheirGauges() {
+		ServiceInstance a = instance("a", 8001);
+		ServiceInstance b = instance("b", 8002);
+		LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(provider(List.of()), latencyStats);
+
+		loadBalancer.choose(List.of(a, b));
+		latencyStats.requestStarted(a);
+		latencyStats.requestStarted(b);
+		assertThat(latencyGauges()).isEqualTo(2);
+
+		loadBalancer.choose(List.of(a));
+		latencyStats.requestFinished(b, 5 * MILLIS);
+
+		assertThat(latencyStats.isTracked(b)).isFalse();
+		assertThat(latencyGauges()).isEqualTo(1);
+	}
+
+	private Map<String, AtomicInteger> drive(List<ServiceInstance> instances, Map<ServiceInstance, Long> responseMillis) {
+		Random random = new Random(42);
+		LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(provider(instances), latencyStats,
+				() -> random);
+		Map<String, AtomicInteger> picks = new ConcurrentHashMap<>();
+		instances.forEach(instance -> picks.put(instance.getInstanceId(), new AtomicInteger()));
+
+		PriorityQueue<Call> outstanding = new PriorityQueue<>((x, y) -> Long.compare(x.completesAt, y.completesAt));
+		for (int i = 0; i < REQUESTS; i++) {
+			clock.set(i * MILLIS);
+			complete(outstanding, clock.get());
+
+			ServiceInstance instance = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+			picks.get(instance.getInstanceId()).incrementAndGet();
+			latencyStats.requestStarted(instance);
+			outstanding.add(new Call(instance, clock.get(), clock.get() + responseMillis.get(instance) * MILLIS));
+		}
+		complete(outstanding, Long.MAX_VALUE);
+		return picks;
+	}
+
+	private void complete(PriorityQueue<Call> outstanding, long until) {
+		while (!outstanding.isEmpty() && outstanding.peek().completesAt <= until) {
+			Call call = outstanding.poll();
+			clock.set(Math.max(clock.get(), call.completesAt));
+			latencyStats.requestFinished(call.instance, call.completesAt - call.startedAt);
+		}
+	}
+
+	private long latencyGauges() {
+		return Search.in(meterRegistry).name("currency.conversion.loadbalancer.latency").gauges().size();
+	}
+
+	private static ServiceInstance instance(String id, int port) {
+		return new DefaultServiceInstance(id, "currency-exchange", "127.0.0.1", port, false);
+	}
+
+	private static ObjectProvider<ServiceInstanceListSupplier> provider(List<ServiceInstance> instances) {
+		ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+			@Override
+			public String getServiceId() {
+				return "currency-exchange";
+			}
+
+			@Override
+			public Flux<List<ServiceInstance>> get() {
+				return Flux.just(instances);
+			}
+		};
+		return new StaticListableBeanFactory(Map.of("instances", supplier)).getBeanProvider(ServiceInstanceListSupplier.class);
+	}
+
+	private record Call(ServiceInstance instance, long startedAt, long completesAt) {
+	}
+}
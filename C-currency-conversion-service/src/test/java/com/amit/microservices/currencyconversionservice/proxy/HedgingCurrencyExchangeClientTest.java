@@ -0,0 +1,174 @@
+package com.amit.microservices.currencyconversionservice.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+import com.amit.microservices.currencyconversionservice.loadbalancer.InstanceLatencyStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * HedgingCurrencyExchangeClient against real HTTP servers standing in for
+ * currency-exchange instances. The hedge delay is 500 ms and there is no latency
+ * history, so only the slow-instance test ever hedges.
+ */
+class HedgingCurrencyExchangeClientTest {
+
+	private static final String RATE = "{\"id\":10001,\"from\":\"USD\",\"to\":\"INR\",\"conversionMultiple\":65.00,\"environment\":\"%s\"}";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final LoadBalancerClient loadBalancer = mock(LoadBalancerClient.class);
+
+	private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+
+	private final CloseableHttpClient httpClient = HttpClients.createDefault();
+
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	private final HedgingCurrencyExchangeClient client = new HedgingCurrencyExchangeClient(loadBalancer, discoveryClient,
+			httpClient, new ObjectMapper(), new InstanceLatencyStats(meterRegistry, 10_000), meterRegistry,
+			true, 0.95, 500, 1.0, 4, 4);
+
+	@AfterEach
+	void stop() throws IOException {
+		client.shutdown();
+		servers.forEach(server -> server.stop(0));
+		httpClient.close();
+	}
+
+	@Test
+	void primaryServerErrorFailsOverToAnotherInstance() throws IOException {
+		ServiceInstance broken = instance("broken", 500, 0);
+		ServiceInstance healthy = instance("healthy", 200, 0);
+		route(broken, broken, healthy);
+
+		CurrencyConversion conversion = client.retrieveExchangeValue("USD", "INR");
+
+		assertThat(conversion.getEnvironment()).isEqualTo("healthy");
+		// answered by the failover, not by a hedge after the delay
+		assertThat(hedges("failed-over")).isEqualTo(1);
+		assertThat(hedges("fired")).isZero();
+	}
+
+	@Test
+	void unreachablePrimaryFailsOverToAnotherInstance() throws IOException {
+		ServiceInstance down = new DefaultServiceInstance("down", "currency-exchange", "localhost", freePort(), false);
+		ServiceInstance healthy = instance("healthy", 200, 0);
+		route(down, down, healthy);
+
+		assertThat(client.retrieveExchangeValue("USD", "INR").getEnvironment()).isEqualTo("healthy");
+		assertThat(hedges("failed-over")).isEqualTo(1);
+	}
+
+	@Test
+	void slowPrimaryIsHedged() throws IOException {
+		ServiceInstance slow = instance("slow", 200, 2_000);
+		ServiceInstance fast = instance("fast", 200, 0);
+		route(slow, slow, fast);
+
+		assertThat(client.retrieveExchangeValue("USD", "INR").getEnvironment()).isEqualTo("fast");
+		assertThat(hedges("fired")).isEqualTo(1);
+		// the winner is counted right after it completes the result the caller is waiting on
+		long deadline = System.nanoTime() + 1_000_000_000L;
+		while (hedges("won") == 0 && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+		assertThat(hedges("won")).isEqualTo(1);
+	}
+
+	@Test
+	void notFoundIsFinalAndRaisedLikeFeign() throws IOException {
+		ServiceInstance missing = instance("missing", 404, 0);
+		ServiceInstance healthy = instance("healthy", 200, 0);
+		route(missing, missing, healthy);
+
+		assertThatThrownBy(() -> client.retrieveExchangeValue("USD", "XXX"))
+				.isInstanceOf(FeignException.NotFound.class)
+				.hasMessageContaining("CurrencyExchangeProxy#retrieveExchangeValue");
+		assertThat(hedges("failed-over")).isZero();
+	}
+
+	@Test
+	void lastFailureIsRaisedLikeFeign() throws IOException {
+		ServiceInstance down = new DefaultServiceInstance("down", "currency-exchange", "localhost", freePort(), false);
+		route(down, down);
+
+		assertThatThrownBy(() -> client.retrieveExchangeValue("USD", "INR")).isInstanceOf(RetryableException.class);
+
+		ServiceInstance broken = instance("broken", 503, 0);
+		route(broken, broken);
+
+		assertThatThrownBy(() -> client.retrieveExchangeValue("USD", "INR"))
+				.isInstanceOf(FeignException.ServiceUnavailable.class);
+	}
+
+	@Test
+	void noInstanceIsServiceUnavailable() {
+		assertThatThrownBy(() -> client.retrieveExchangeValue("USD", "INR"))
+				.isInstanceOf(FeignException.ServiceUnavailable.class);
+	}
+
+	// An instance that answers every request with `status` after `delayMillis`
+	private ServiceInstance instance(String name, int status, long delayMillis) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/currency-exchange", exchange -> {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = (status == 200 ? RATE.formatted(name) : "{\"status\":" + status + "}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		servers.add(server);
+		return new DefaultServiceInstance(name, "currency-exchange", "localhost", server.getAddress().getPort(), false);
+	}
+
+	private void route(ServiceInstance primary, ServiceInstance... registered) {
+		when(loadBalancer.choose("currency-exchange")).thenReturn(primary);
+		when(discoveryClient.getInstances("currency-exchange")).thenReturn(List.of(registered));
+	}
+
+	private double hedges(String result) {
+		return meterRegistry.get("currency.conversion.hedges").tag("result", result).counter().count();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
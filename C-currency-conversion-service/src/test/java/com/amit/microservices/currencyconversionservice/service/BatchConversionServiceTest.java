@@ -0,0 +1,87 @@
+package com.amit.microservices.currencyconversionservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.amit.microservices.currencyconversionservice.bean.BatchConversionResponse;
+import com.amit.microservices.currencyconversionservice.bean.ConversionRequest;
+import com.amit.microservices.currencyconversionservice.bean.ConversionResult;
+import com.amit.microservices.currencyconversionservice.bean.CurrencyConversion;
+
+/*
+ * One fetch thread, one queued lookup and a 300 ms batch timeout. USD->INR blocks
+ * until the test ends, like a slow exchange service, and keeps its thread busy.
+ */
+class BatchConversionServiceTest {
+
+	private final ExchangeRateCache rateCache = mock(ExchangeRateCache.class);
+
+	private final BatchConversionService service = new BatchConversionService(rateCache, 1, 1, 300);
+
+	private final CountDownLatch unblock = new CountDownLatch(1);
+
+	@AfterEach
+	void stop() {
+		unblock.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void lookupsBeyondTheQueueAreReportedPerPosition() {
+		blockUsdInr();
+		when(rateCache.get("EUR", "INR")).thenReturn(rate("EUR", "INR", "80"));
+
+		BatchConversionResponse response = service.convert(List.of(
+				position("USD", "INR"), position("EUR", "INR"), position("GBP", "INR")));
+
+		// USD->INR holds the thread, EUR->INR waits in the queue, GBP->INR does not fit
+		assertThat(response.failed()).isEqualTo(3);
+		assertThat(response.conversions()).extracting(ConversionResult::error).containsExactly(
+				"Timed out fetching the rate for USD-INR",
+				"Timed out fetching the rate for EUR-INR",
+				"Too many rate lookups in progress, not fetching the rate for GBP-INR");
+		verify(rateCache, never()).get("GBP", "INR");
+	}
+
+	@Test
+	void timedOutLookupsStillQueuedAreSkipped() throws InterruptedException {
+		blockUsdInr();
+		when(rateCache.get("EUR", "INR")).thenReturn(rate("EUR", "INR", "80"));
+		service.convert(List.of(position("USD", "INR"), position("EUR", "INR")));
+
+		// once the running fetch returns, the thread is free again and the queued lookup is not run
+		unblock.countDown();
+		Thread.sleep(200);
+		when(rateCache.get("GBP", "INR")).thenReturn(rate("GBP", "INR", "100"));
+		BatchConversionResponse response = service.convert(List.of(position("GBP", "INR")));
+
+		assertThat(response.failed()).isZero();
+		assertThat(response.conversions().get(0).totalCalculatedAmount()).isEqualByComparingTo("200");
+		verify(rateCache, never()).get("EUR", "INR");
+	}
+
+	private void blockUsdInr() {
+		when(rateCache.get("USD", "INR")).thenAnswer(invocation -> {
+			unblock.await();
+			return rate("USD", "INR", "65");
+		});
+	}
+
+	private static ConversionRequest position(String from, String to) {
+		return new ConversionRequest(from, to, new BigDecimal("2"));
+	}
+
+	private static CurrencyConversion rate(String from, String to, String multiple) {
+		return new CurrencyConversion(10001L, from, to, null, new BigDecimal(multiple), null, "8000");
+	}
+}
@@ -0,0 +1,215 @@
+package com.amit.microservices.springapigateway;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * Currency-affinity routing for lb://CURRENCY-EXCHANGE.
+ *
+ * Each currency-exchange instance advertises the base (from) currencies it keeps in memory
+ * through the Eureka metadata key "base-currencies", e.g. base-currencies=USD,EUR.
+ * For /currency-exchange/from/{from}/... this filter runs just before the normal load balancer
+ * and picks the instance itself:
+ *   1. instances that own {from}, otherwise
+ *   2. instances with no base-currencies (they hold every pair), otherwise
+ *   3. any instance (it answers from its database).
+ * Within that group the instance is chosen by consistent hashing on {from}, so the same base
+ * currency keeps landing on the same instance and only ~1/n of the currencies move when an
+ * instance joins or leaves.
+ *
+ * Anything else (batch, export, ingest, ...) is left to the round-robin load balancer.
+ */
+@Component
+public class CurrencyAffinityLoadBalancingFilter implements GlobalFilter, Ordered {
+
+	static final String SERVICE_ID = "CURRENCY-EXCHANGE";
+	static final String BASE_CURRENCIES_METADATA = "base-currencies";
+
+	private static final String PATH_PREFIX = "/currency-exchange/from/";
+	private static final int VIRTUAL_NODES = 160;
+	private static final int MAX_CACHED_RINGS = 64;
+
+	private final ReactiveDiscoveryClient discoveryClient;
+
+	// Rings keyed by the sorted instance ids of a candidate group, rebuilt only when membership changes
+	private final Map<List<String>, HashRing> rings = new ConcurrentHashMap<>();
+
+	public CurrencyAffinityLoadBalancingFilter(ReactiveDiscoveryClient discoveryClient) {
+		this.discoveryClient = discoveryClient;
+	}
+
+	@Override
+	public int getOrder() {
+		return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+		if (url == null || !"lb".equals(url.getScheme()) || !SERVICE_ID.equalsIgnoreCase(url.getHost())) {
+			return chain.filter(exchange);
+		}
+		String from = baseCurrency(url.getRawPath());
+		if (from == null) {
+			return chain.filter(exchange);
+		}
+
+		return discoveryClient.getInstances(url.getHost())
+				.collectList()
+				.flatMap(instances -> {
+					ServiceInstance instance = choose(instances, from);
+					if (instance != null) {
+						// The load balancer filter only acts on lb:// urls, so it steps aside for this request
+						addOriginalRequestUrl(exchange, url);
+						exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, reconstruct(instance, url));
+					}
+					return chain.filter(exchange);
+				});
+	}
+
+	ServiceInstance choose(List<ServiceInstance> instances, String from) {
+		if (instances.isEmpty()) {
+			return null;
+		}
+		List<ServiceInstance> owners = new ArrayList<>();
+		List<ServiceInstance> unsharded = new ArrayList<>();
+		for (ServiceInstance instance : instances) {
+			String owned = instance.getMetadata().get(BASE_CURRENCIES_METADATA);
+			if (owned == null || owned.isBlank()) {
+				unsharded.add(instance);
+			} else if (owns(owned, from)) {
+				owners.add(instance);
+			}
+		}
+		List<ServiceInstance> candidates = !owners.isEmpty() ? owners : !unsharded.isEmpty() ? unsharded : instances;
+		return ring(candidates).locate(from);
+	}
+
+	private HashRing ring(List<ServiceInstance> candidates) {
+		List<ServiceInstance> sorted = new ArrayList<>(candidates);
+		sorted.sort(Comparator.comparing(CurrencyAffinityLoadBalancingFilter::nodeKey));
+		List<String> key = sorted.stream().map(CurrencyAffinityLoadBalancingFilter::nodeKey).toList();
+		HashRing ring = rings.get(key);
+		if (ring == null) {
+			if (rings.size() >= MAX_CACHED_RINGS) {
+				rings.clear();
+			}
+			ring = rings.computeIfAbsent(key, k -> HashRing.of(sorted));
+		}
+		return ring;
+	}
+
+	// "/currency-exchange/from/usd/to/INR" -> "USD"
+	static String baseCurrency(String path) {
+		if (path == null || !path.startsWith(PATH_PREFIX)) {
+			return null;
+		}
+		int start = PATH_PREFIX.length();
+		int end = path.indexOf('/', start);
+		String from = end < 0 ? path.substring(start) : path.substring(start, end);
+		return from.length() == 3 ? from.toUpperCase(Locale.ROOT) : null;
+	}
+
+	private static boolean owns(String owned, String from) {
+		for (String code : owned.split(",")) {
+			if (code.trim().equalsIgnoreCase(from)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String nodeKey(ServiceInstance instance) {
+		return instance.getHost() + ":" + instance.getPort();
+	}
+
+	private static URI reconstruct(ServiceInstance instance, URI original) {
+		return UriComponentsBuilder.fromUri(original)
+				.scheme(instance.isSecure() ? "https" : "http")
+				.host(instance.getHost())
+				.port(instance.getPort())
+				.build(true)
+				.toUri();
+	}
+
+	// 64-bit FNV-1a, then a final avalanche so neighbouring keys spread around the ring
+	static long hash(String key) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/*
+	 * Immutable ring of VIRTUAL_NODES points per instance, kept as parallel sorted arrays so
+	 * a lookup is one binary search.
+	 */
+	static final class HashRing {
+
+		private final long[] points;
+		private final ServiceInstance[] owners;
+
+		private HashRing(long[] points, ServiceInstance[] owners) {
+			this.points = points;
+			this.owners = owners;
+		}
+
+		static HashRing of(List<ServiceInstance> instances) {
+			int size = instances.size() * VIRTUAL_NODES;
+			long[][] entries = new long[size][2];
+			int n = 0;
+			for (int i = 0; i < instances.size(); i++) {
+				String node = nodeKey(instances.get(i));
+				for (int v = 0; v < VIRTUAL_NODES; v++) {
+					entries[n][0] = hash(node + "#" + v);
+					entries[n][1] = i;
+					n++;
+				}
+			}
+			Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+			long[] points = new long[size];
+			ServiceInstance[] owners = new ServiceInstance[size];
+			for (int i = 0; i < size; i++) {
+				points[i] = entries[i][0];
+				owners[i] = instances.get((int) entries[i][1]);
+			}
+			return new HashRing(points, owners);
+		}
+
+		ServiceInstance locate(String key) {
+			int index = Arrays.binarySearch(points, hash(key));
+			if (index < 0) {
+				index = -index - 1;
+			}
+			return owners[index == points.length ? 0 : index];
+		}
+	}
+}
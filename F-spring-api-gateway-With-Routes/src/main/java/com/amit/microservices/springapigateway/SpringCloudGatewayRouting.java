@@ -12,7 +12,7 @@ public class SpringCloudGatewayRouting {
         return builder.routes()
                 .route(p -> p
                         .path("/currency-exchange/**")  // Match all requests starting with this
-                        .uri("lb://CURRENCY-EXCHANGE")) // Forward to Eureka service name
+                        .uri("lb://CURRENCY-EXCHANGE")) // Forward to Eureka service name; {from} picks the shard (CurrencyAffinityLoadBalancingFilter)
                 .route(p -> p
                         .path("/currency-conversion/**")  // Match all requests starting with this
                         .uri("lb://CURRENCY-CONVERSION")) // Forward to Eureka service name
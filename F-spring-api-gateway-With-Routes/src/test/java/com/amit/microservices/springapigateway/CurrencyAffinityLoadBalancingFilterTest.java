@@ -0,0 +1,115 @@
+package com.amit.microservices.springapigateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+
+import com.amit.microservices.springapigateway.CurrencyAffinityLoadBalancingFilter.HashRing;
+
+class CurrencyAffinityLoadBalancingFilterTest {
+
+	private final CurrencyAffinityLoadBalancingFilter filter =
+			new CurrencyAffinityLoadBalancingFilter(mock(ReactiveDiscoveryClient.class));
+
+	@Test
+	void baseCurrencyIsTakenFromTheExchangePath() {
+		assertThat(CurrencyAffinityLoadBalancingFilter.baseCurrency("/currency-exchange/from/usd/to/INR")).isEqualTo("USD");
+		assertThat(CurrencyAffinityLoadBalancingFilter.baseCurrency("/currency-exchange/from/EUR")).isEqualTo("EUR");
+		assertThat(CurrencyAffinityLoadBalancingFilter.baseCurrency("/currency-exchange/from/EURO/to/INR")).isNull();
+		assertThat(CurrencyAffinityLoadBalancingFilter.baseCurrency("/currency-exchange/batch")).isNull();
+		assertThat(CurrencyAffinityLoadBalancingFilter.baseCurrency(null)).isNull();
+	}
+
+	@Test
+	void ownersAreChosenFirst() {
+		ServiceInstance usd = instance(8000, "USD,EUR");
+		ServiceInstance gbp = instance(8001, "GBP");
+		ServiceInstance unsharded = instance(8002, null);
+
+		assertThat(filter.choose(List.of(usd, gbp, unsharded), "EUR")).isSameAs(usd);
+		assertThat(filter.choose(List.of(usd, gbp, unsharded), "GBP")).isSameAs(gbp);
+	}
+
+	@Test
+	void unshardedInstancesAreChosenWhenNoOneOwnsTheCurrency() {
+		ServiceInstance usd = instance(8000, "USD");
+		ServiceInstance unsharded = instance(8002, "");
+
+		assertThat(filter.choose(List.of(usd, unsharded), "JPY")).isSameAs(unsharded);
+	}
+
+	@Test
+	void anyInstanceIsChosenWhenNoneHoldsTheCurrency() {
+		ServiceInstance usd = instance(8000, "USD");
+		ServiceInstance gbp = instance(8001, "GBP");
+
+		assertThat(filter.choose(List.of(usd, gbp), "JPY")).isIn(usd, gbp);
+		assertThat(filter.choose(List.of(), "JPY")).isNull();
+	}
+
+	@Test
+	void placementDoesNotDependOnDiscoveryOrder() {
+		List<ServiceInstance> instances = instances(5);
+		List<ServiceInstance> reversed = new ArrayList<>(instances);
+		Collections.reverse(reversed);
+
+		for (String currency : currencies(200)) {
+			assertThat(filter.choose(reversed, currency)).isSameAs(filter.choose(instances, currency));
+		}
+	}
+
+	@Test
+	void addingAnInstanceMovesAboutOneNthOfTheCurrencies() {
+		List<ServiceInstance> four = instances(4);
+		List<ServiceInstance> five = instances(5);
+		HashRing before = HashRing.of(four);
+		HashRing after = HashRing.of(five);
+
+		List<String> currencies = currencies(2000);
+		int moved = 0;
+		for (String currency : currencies) {
+			int owner = after.locate(currency).getPort();
+			if (owner != before.locate(currency).getPort()) {
+				// Keys only ever move to the new instance, never between the existing ones
+				assertThat(owner).isEqualTo(five.get(4).getPort());
+				moved++;
+			}
+		}
+		// 1/5 of the keys is expected to move; allow for the spread of 160 virtual nodes
+		assertThat((double) moved / currencies.size()).isBetween(0.12, 0.28);
+	}
+
+	private static List<ServiceInstance> instances(int count) {
+		List<ServiceInstance> instances = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			instances.add(instance(8000 + i, null));
+		}
+		return instances;
+	}
+
+	private static ServiceInstance instance(int port, String baseCurrencies) {
+		Map<String, String> metadata = baseCurrencies == null
+				? Map.of()
+				: Map.of(CurrencyAffinityLoadBalancingFilter.BASE_CURRENCIES_METADATA, baseCurrencies);
+		return new DefaultServiceInstance("currency-exchange-" + port, CurrencyAffinityLoadBalancingFilter.SERVICE_ID,
+				"localhost", port, false, metadata);
+	}
+
+	// AAA, AAB, ... as stand-ins for ISO codes, enough of them to measure the spread
+	private static List<String> currencies(int count) {
+		List<String> codes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			codes.add("" + (char) ('A' + i / 676 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+		}
+		return codes;
+	}
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
 import com.amit.microservices.currencyexchangeservice.model.CurrencyConversion;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -34,7 +35,7 @@ public class Resilience4jCircuitBreakerController {
 
 		return new CurrencyConversion(currencyConversion.getId(), from, to, quantity,
 				currencyConversion.getConversionMultiple(),
-				quantity.multiply(currencyConversion.getConversionMultiple()),
+				FixedPointMoney.multiply(quantity, currencyConversion.getConversionMultiple()),
 				currencyConversion.getEnvironment() + " " + "Using-Feign-Client-Circuit-Breaker");
 	}
 	
@@ -53,7 +54,7 @@ public class Resilience4jCircuitBreakerController {
 	            to,
 	            quantity,
 	            BigDecimal.valueOf(65),  // default conversion rate
-	            BigDecimal.valueOf(65).multiply(quantity), // total amount
+	            FixedPointMoney.multiply(quantity, BigDecimal.valueOf(65)), // total amount
 	            "Fallback response: ohh! Sorry!! Looks like there are some technical problems. Please try again later. Error: Circuit Breaker :" + ex.getMessage()
 	    );
 	}
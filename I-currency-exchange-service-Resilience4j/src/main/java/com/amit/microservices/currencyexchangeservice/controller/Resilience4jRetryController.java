@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
 import com.amit.microservices.currencyexchangeservice.model.CurrencyConversion;
 
 import io.github.resilience4j.retry.annotation.Retry;
@@ -36,7 +37,7 @@ public class Resilience4jRetryController {
 
 		return new CurrencyConversion(currencyConversion.getId(), from, to, quantity,
 				currencyConversion.getConversionMultiple(),
-				quantity.multiply(currencyConversion.getConversionMultiple()),
+				FixedPointMoney.multiply(quantity, currencyConversion.getConversionMultiple()),
 				currencyConversion.getEnvironment() + " " + "Using-Feign-Client-Retry");
 	}
 	
@@ -55,7 +56,7 @@ public class Resilience4jRetryController {
 	            to,
 	            quantity,
 	            BigDecimal.valueOf(65),  // default conversion rate
-	            BigDecimal.valueOf(65).multiply(quantity), // total amount
+	            FixedPointMoney.multiply(quantity, BigDecimal.valueOf(65)), // total amount
 	            "Fallback response: ohh! Sorry!! Looks like there are some technical problems. Please try again later. Error: Retry :" + ex.getMessage()
 	    );
 	}
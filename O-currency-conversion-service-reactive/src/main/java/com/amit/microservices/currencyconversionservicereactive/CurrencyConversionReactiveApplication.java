@@ -0,0 +1,12 @@
+package com.amit.microservices.currencyconversionservicereactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class CurrencyConversionReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(CurrencyConversionReactiveApplication.class, args);
+	}
+}
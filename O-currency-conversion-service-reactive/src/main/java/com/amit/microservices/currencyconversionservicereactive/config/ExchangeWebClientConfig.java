@@ -0,0 +1,52 @@
+package com.amit.microservices.currencyconversionservicereactive.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/*
+ * WebClient used to call the exchange service without blocking.
+ *
+ * The builder is @LoadBalanced, so http://currency-exchange/... is resolved through
+ * Eureka. Connections come from a bounded Reactor Netty pool with the same knobs as
+ * the RestTemplate client of the blocking service; pool gauges are published as
+ * reactor.netty.connection.provider.* metrics. The pool is the only limit on calls in
+ * flight here, so it is sized well above the 200 threads of the blocking service, and a
+ * request waits for a connection as long as it would wait for a response.
+ */
+@Configuration
+public class ExchangeWebClientConfig {
+
+	@Bean
+	public ConnectionProvider exchangeConnectionProvider(
+			@Value("${currency-conversion.exchange-client.max-connections:1000}") int maxConnections,
+			@Value("${currency-conversion.exchange-client.pool-timeout:3000}") long poolTimeoutMillis,
+			@Value("${currency-conversion.exchange-client.keep-alive:30000}") long keepAliveMillis) {
+		return ConnectionProvider.builder("currency-exchange")
+				.maxConnections(maxConnections)
+				.pendingAcquireTimeout(Duration.ofMillis(poolTimeoutMillis))
+				.maxIdleTime(Duration.ofMillis(keepAliveMillis))
+				.metrics(true)
+				.build();
+	}
+
+	@Bean
+	@LoadBalanced
+	public WebClient.Builder exchangeWebClientBuilder(ConnectionProvider exchangeConnectionProvider,
+			@Value("${currency-conversion.exchange-client.connect-timeout:1000}") int connectTimeoutMillis,
+			@Value("${currency-conversion.exchange-client.read-timeout:3000}") long readTimeoutMillis) {
+		HttpClient httpClient = HttpClient.create(exchangeConnectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+				.responseTimeout(Duration.ofMillis(readTimeoutMillis));
+		return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+	}
+}
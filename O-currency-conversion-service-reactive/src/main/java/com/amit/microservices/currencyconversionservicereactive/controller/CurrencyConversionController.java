@@ -0,0 +1,71 @@
+package com.amit.microservices.currencyconversionservicereactive.controller;
+
+import java.math.BigDecimal;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
+import com.amit.microservices.currencyconversionservicereactive.bean.CurrencyConversion;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * The /currency-conversion* routes of C-currency-conversion-service, but no request
+ * holds a thread while the exchange service answers: the event loop moves on and
+ * picks the response up when it arrives. There is no Feign client here; the -feign
+ * route is kept so callers moved over from C keep their URLs, and is served by the
+ * same WebClient call.
+ *
+ * A call that gets no response (no free connection within pool-timeout, connect or
+ * read timeout, refused connection) is answered with 503, so clients can back off
+ * and retry instead of seeing a 500.
+ */
+@RestController
+public class CurrencyConversionController {
+
+	private static final String EXCHANGE_URI = "http://currency-exchange/currency-exchange/from/{from}/to/{to}";
+
+	private final WebClient webClient;
+
+	public CurrencyConversionController(WebClient.Builder exchangeWebClientBuilder) {
+		this.webClient = exchangeWebClientBuilder.build();
+	}
+
+	@GetMapping("/currency-conversion/from/{from}/to/{to}/quantity/{quantity}")
+	public Mono<CurrencyConversion> calculateCurrencyConversion(@PathVariable String from, @PathVariable String to,
+			@PathVariable BigDecimal quantity) {
+		return convert(from, to, quantity, "Using-WebClient");
+	}
+
+	@GetMapping("/currency-conversion-feign/from/{from}/to/{to}/quantity/{quantity}")
+	public Mono<CurrencyConversion> calculateCurrencyConversionFeign(@PathVariable String from, @PathVariable String to,
+			@PathVariable BigDecimal quantity) {
+		return convert(from, to, quantity, "Using-WebClient-On-Feign-Route");
+	}
+
+	private Mono<CurrencyConversion> convert(String from, String to, BigDecimal quantity, String client) {
+		String fromCode = CurrencyPair.normalize(from);
+		String toCode = CurrencyPair.normalize(to);
+
+		return webClient.get()
+				.uri(EXCHANGE_URI, fromCode, toCode)
+				.retrieve()
+				.onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(),
+						response -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
+								"Unable to find data for " + fromCode + " to " + toCode)))
+				.bodyToMono(CurrencyConversion.class)
+				.onErrorMap(WebClientRequestException.class, e -> new ResponseStatusException(
+						HttpStatus.SERVICE_UNAVAILABLE, "Currency exchange service unavailable: " + e.getMessage(), e))
+				.map(currencyConversion -> new CurrencyConversion(currencyConversion.getId(), fromCode, toCode, quantity,
+						currencyConversion.getConversionMultiple(),
+						FixedPointMoney.multiply(quantity, currencyConversion.getConversionMultiple()),
+						currencyConversion.getEnvironment() + " " + client));
+	}
+}
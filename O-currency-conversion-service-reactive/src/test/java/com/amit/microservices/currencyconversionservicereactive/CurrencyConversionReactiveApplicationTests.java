@@ -0,0 +1,13 @@
+package com.amit.microservices.currencyconversionservicereactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class CurrencyConversionReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.amit.microservices.currencyconversionservicereactive.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * The reactive routes end to end: the load-balanced WebClient resolves currency-exchange
+ * through the simple discovery client to a stub server that knows one rate, USD to INR,
+ * and takes longer than the read timeout for USD to GBP.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"eureka.client.enabled=false",
+		"spring.cloud.config.enabled=false",
+		"currency-conversion.exchange-client.read-timeout=500" })
+class CurrencyConversionControllerTest {
+
+	private static final List<String> exchangeRequests = new CopyOnWriteArrayList<>();
+
+	private static final HttpServer exchange = startExchange();
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@DynamicPropertySource
+	static void exchangeInstance(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances.currency-exchange[0].uri",
+				() -> "http://localhost:" + exchange.getAddress().getPort());
+	}
+
+	@AfterAll
+	static void stopExchange() {
+		exchange.stop(0);
+	}
+
+	@BeforeEach
+	void clearRequests() {
+		exchangeRequests.clear();
+	}
+
+	@Test
+	void convertsWithTheRateOfTheExchangeService() {
+		webTestClient.get().uri("/currency-conversion/from/USD/to/INR/quantity/10")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(10001)
+				.jsonPath("$.from").isEqualTo("USD")
+				.jsonPath("$.to").isEqualTo("INR")
+				.jsonPath("$.quantity").isEqualTo(10)
+				.jsonPath("$.conversionMultiple").isEqualTo(65.5)
+				.jsonPath("$.totalCalculatedAmount").isEqualTo(655.0)
+				.jsonPath("$.environment").isEqualTo("8000 Using-WebClient");
+	}
+
+	@Test
+	void feignRouteIsServedByTheWebClient() {
+		webTestClient.get().uri("/currency-conversion-feign/from/USD/to/INR/quantity/10")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.totalCalculatedAmount").isEqualTo(655.0)
+				.jsonPath("$.environment").isEqualTo("8000 Using-WebClient-On-Feign-Route");
+	}
+
+	@Test
+	void exchangeServiceNotAnsweringIsServiceUnavailable() {
+		webTestClient.get().uri("/currency-conversion/from/USD/to/GBP/quantity/10")
+				.exchange()
+				.expectStatus().isEqualTo(503);
+	}
+
+	@Test
+	void codesAreNormalizedBeforeCallingTheExchangeService() {
+		webTestClient.get().uri("/currency-conversion/from/usd/to/inr/quantity/2.5")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.from").isEqualTo("USD")
+				.jsonPath("$.totalCalculatedAmount").isEqualTo(163.75);
+
+		assertThat(exchangeRequests).containsExactly("/currency-exchange/from/USD/to/INR");
+	}
+
+	@Test
+	void unknownPairIsNotFound() {
+		webTestClient.get().uri("/currency-conversion/from/USD/to/JPY/quantity/10")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void invalidCodeIsRejectedWithoutCallingTheExchangeService() {
+		webTestClient.get().uri("/currency-conversion/from/US1/to/INR/quantity/10")
+				.exchange()
+				.expectStatus().isBadRequest();
+
+		assertThat(exchangeRequests).isEmpty();
+	}
+
+	private static HttpServer startExchange() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/currency-exchange", request -> {
+				String path = request.getRequestURI().getPath();
+				exchangeRequests.add(path);
+				if (path.equals("/currency-exchange/from/USD/to/GBP")) {
+					try {
+						Thread.sleep(2_000);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				boolean known = path.equals("/currency-exchange/from/USD/to/INR");
+				byte[] body = (known
+						? "{\"id\":10001,\"from\":\"USD\",\"to\":\"INR\",\"conversionMultiple\":65.50,\"environment\":\"8000\"}"
+						: "{\"status\":404}").getBytes(StandardCharsets.UTF_8);
+				request.getResponseHeaders().add("Content-Type", "application/json");
+				request.sendResponseHeaders(known ? 200 : 404, body.length);
+				try (OutputStream out = request.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
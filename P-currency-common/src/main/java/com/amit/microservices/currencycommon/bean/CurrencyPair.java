@@ -0,0 +1,99 @@
+package com.amit.microservices.currencycommon.bean;
+
+import java.util.Locale;
+
+import com.amit.microservices.currencycommon.exception.InvalidCurrencyCodeException;
+
+/*
+ * ISO-4217 currency codes packed into primitives.
+ *
+ * A code is three letters A-Z and each letter takes 5 bits, so a code fits in the low
+ * 15 bits of an int (0 is never a valid code) and a from/to pair fits in one long.
+ * Tables and caches keyed by these values avoid hashing and comparing Strings on every
+ * lookup; a code can even be used directly as an array index (see CODE_SPACE).
+ *
+ * Codes are validated and upper-cased once, at the edge, by encode/normalize/of.
+ */
+public final class CurrencyPair {
+
+	// Every encoded currency code is smaller than this
+	public static final int CODE_SPACE = 1 << 15;
+
+	private CurrencyPair() {
+	}
+
+	public static int encode(String code) {
+		if (code == null || code.length() != 3) {
+			throw new InvalidCurrencyCodeException(code);
+		}
+		int packed = 0;
+		for (int i = 0; i < 3; i++) {
+			char c = code.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			if (c < 'A' || c > 'Z') {
+				throw new InvalidCurrencyCodeException(code);
+			}
+			packed = (packed << 5) | (c - 'A' + 1);
+		}
+		return packed;
+	}
+
+	public static String decode(int code) {
+		char[] letters = new char[3];
+		for (int i = 2; i >= 0; i--) {
+			letters[i] = (char) ('A' + (code & 31) - 1);
+			code >>>= 5;
+		}
+		return new String(letters);
+	}
+
+	public static boolean isValid(String code) {
+		try {
+			encode(code);
+			return true;
+		} catch (InvalidCurrencyCodeException e) {
+			return false;
+		}
+	}
+
+	// Validated, upper-case code; returns the same instance when it is already upper case
+	public static String normalize(String code) {
+		encode(code);
+		for (int i = 0; i < 3; i++) {
+			if (Character.isLowerCase(code.charAt(i))) {
+				return code.toUpperCase(Locale.ROOT);
+			}
+		}
+		return code;
+	}
+
+	public static long of(String from, String to) {
+		return pack(encode(from), encode(to));
+	}
+
+	// Parses the "FROM-TO" form, e.g. USD-INR
+	public static long parse(String pair) {
+		if (pair == null || pair.length() != 7 || pair.charAt(3) != '-') {
+			throw new InvalidCurrencyCodeException(pair);
+		}
+		return of(pair.substring(0, 3), pair.substring(4));
+	}
+
+	public static long pack(int from, int to) {
+		return ((long) from << 32) | to;
+	}
+
+	public static int from(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	public static int to(long pair) {
+		return (int) pair;
+	}
+
+	public static String toString(long pair) {
+		return decode(from(pair)) + "-" + decode(to(pair));
+	}
+}
@@ -0,0 +1,21 @@
+package com.amit.microservices.currencycommon.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Raised at the edge for anything that is not a three letter currency code (or FROM-TO pair)
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCurrencyCodeException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCurrencyCodeException(String code) {
+		super("Invalid currency code: " + code);
+	}
+
+	// Bad input from clients is expected; capturing a stack trace for it is wasted work
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
@@ -0,0 +1,47 @@
+package com.amit.microservices.currencycommon.bean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.amit.microservices.currencycommon.exception.InvalidCurrencyCodeException;
+
+class CurrencyPairTest {
+
+	@Test
+	void codesRoundTripThroughTheirPackedForm() {
+		assertThat(CurrencyPair.decode(CurrencyPair.encode("USD"))).isEqualTo("USD");
+		assertThat(CurrencyPair.decode(CurrencyPair.encode("zzz"))).isEqualTo("ZZZ");
+		assertThat(CurrencyPair.encode("AAA")).isPositive();
+		assertThat(CurrencyPair.encode("ZZZ")).isLessThan(CurrencyPair.CODE_SPACE);
+	}
+
+	@Test
+	void pairsAreCaseInsensitive() {
+		long pair = CurrencyPair.of("usd", "Inr");
+
+		assertThat(pair).isEqualTo(CurrencyPair.of("USD", "INR")).isEqualTo(CurrencyPair.parse("USD-INR"));
+		assertThat(CurrencyPair.toString(pair)).isEqualTo("USD-INR");
+		assertThat(CurrencyPair.decode(CurrencyPair.from(pair))).isEqualTo("USD");
+		assertThat(CurrencyPair.decode(CurrencyPair.to(pair))).isEqualTo("INR");
+		assertThat(CurrencyPair.of("INR", "USD")).isNotEqualTo(pair);
+	}
+
+	@Test
+	void normalizeKeepsUpperCaseCodes() {
+		String code = "EUR";
+
+		assertThat(CurrencyPair.normalize(code)).isSameAs(code);
+		assertThat(CurrencyPair.normalize("eur")).isEqualTo("EUR");
+	}
+
+	@Test
+	void anythingButThreeLettersIsRejected() {
+		for (String code : new String[] { null, "", "US", "USDT", "US1", "U D", "ÜSD" }) {
+			assertThat(CurrencyPair.isValid(code)).as(code).isFalse();
+			assertThatThrownBy(() -> CurrencyPair.encode(code)).isInstanceOf(InvalidCurrencyCodeException.class);
+		}
+		assertThatThrownBy(() -> CurrencyPair.parse("USD/INR")).isInstanceOf(InvalidCurrencyCodeException.class);
+	}
+}
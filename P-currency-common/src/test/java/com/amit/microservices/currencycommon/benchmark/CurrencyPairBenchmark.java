@@ -0,0 +1,101 @@
+package com.amit.microservices.currencycommon.benchmark;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amit.microservices.currencycommon.bean.CurrencyPair;
+
+/*
+ * Rate lookup by the from/to path variables of a request, keyed three ways:
+ *   stringKey - HashMap<String, BigDecimal> keyed by from + "-" + to
+ *   longKey   - HashMap<Long, BigDecimal> keyed by the packed CurrencyPair (boxed)
+ *   matrix    - ordinal array indexed by packed code plus a rate matrix, the layout of
+ *               the exchange service's CrossRateMatrix: no hashing, no boxing
+ * 32 currencies, every one of the 1024 pairs present; the codes arrive as new String
+ * instances, like path variables do. Run with -prof gc for bytes per lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class CurrencyPairBenchmark {
+
+	private static final String[] CODES = { "USD", "EUR", "JPY", "GBP", "CNY", "AUD", "CAD", "CHF", "HKD", "SGD",
+			"SEK", "KRW", "NOK", "NZD", "INR", "MXN", "TWD", "ZAR", "BRL", "DKK", "PLN", "THB", "ILS", "IDR", "CZK",
+			"AED", "TRY", "HUF", "CLP", "SAR", "PHP", "MYR" };
+
+	private static final int CURRENCIES = CODES.length;
+
+	private static final int LOOKUPS = 1024;
+
+	private final Map<String, BigDecimal> byString = new HashMap<>();
+
+	private final Map<Long, BigDecimal> byLong = new HashMap<>();
+
+	private final short[] ordinalByCode = new short[CurrencyPair.CODE_SPACE];
+
+	private final BigDecimal[][] matrix = new BigDecimal[CURRENCIES][CURRENCIES];
+
+	private final String[] froms = new String[LOOKUPS];
+
+	private final String[] tos = new String[LOOKUPS];
+
+	private int next;
+
+	@Setup
+	public void rates() {
+		Random random = new Random(42);
+		String[] codes = CODES;
+		for (int i = 0; i < CURRENCIES; i++) {
+			ordinalByCode[CurrencyPair.encode(codes[i])] = (short) (i + 1);
+		}
+		for (int from = 0; from < CURRENCIES; from++) {
+			for (int to = 0; to < CURRENCIES; to++) {
+				BigDecimal rate = BigDecimal.valueOf(1 + random.nextInt(1_000_000), 4);
+				byString.put(codes[from] + "-" + codes[to], rate);
+				byLong.put(CurrencyPair.of(codes[from], codes[to]), rate);
+				matrix[from][to] = rate;
+			}
+		}
+		for (int i = 0; i < LOOKUPS; i++) {
+			froms[i] = new String(codes[random.nextInt(CURRENCIES)]);
+			tos[i] = new String(codes[random.nextInt(CURRENCIES)]);
+		}
+	}
+
+	@Benchmark
+	public BigDecimal stringKey() {
+		int i = next++ & (LOOKUPS - 1);
+		return byString.get(froms[i] + "-" + tos[i]);
+	}
+
+	@Benchmark
+	public BigDecimal longKey() {
+		int i = next++ & (LOOKUPS - 1);
+		return byLong.get(CurrencyPair.of(froms[i], tos[i]));
+	}
+
+	@Benchmark
+	public BigDecimal matrix() {
+		int i = next++ & (LOOKUPS - 1);
+		int from = ordinalByCode[CurrencyPair.encode(froms[i])] - 1;
+		int to = ordinalByCode[CurrencyPair.encode(tos[i])] - 1;
+		return from < 0 || to < 0 ? null : matrix[from][to];
+	}
+}
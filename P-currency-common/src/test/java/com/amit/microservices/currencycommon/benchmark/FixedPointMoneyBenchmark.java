@@ -0,0 +1,79 @@
+package com.amit.microservices.currencycommon.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amit.microservices.currencycommon.util.FixedPointMoney;
+
+/*
+ * quantity x conversionMultiple three ways:
+ *   bigDecimal        - quantity.multiply(multiple), the original controller code (unbounded scale)
+ *   bigDecimalRounded - FixedPointMoney's result policy written with BigDecimal.setScale
+ *   fixedPoint        - FixedPointMoney.multiply
+ * Operands are whole or 2-digit quantities with multiples of 2 to 6 decimals ("exact",
+ * no rounding needed), or 4 to 6 digit quantities with 6 to 8 decimal multiples
+ * ("rounded", the result scale is capped). Run with -prof gc for bytes per conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class FixedPointMoneyBenchmark {
+
+	private static final int OPERANDS = 1024;
+
+	@Param({ "exact", "rounded" })
+	public String operands;
+
+	private final BigDecimal[] quantities = new BigDecimal[OPERANDS];
+
+	private final BigDecimal[] multiples = new BigDecimal[OPERANDS];
+
+	private int next;
+
+	@Setup
+	public void operands() {
+		Random random = new Random(42);
+		boolean exact = "exact".equals(operands);
+		for (int i = 0; i < OPERANDS; i++) {
+			quantities[i] = BigDecimal.valueOf(1 + random.nextInt(100_000), exact ? random.nextInt(3) : 4 + random.nextInt(3));
+			multiples[i] = BigDecimal.valueOf(1 + random.nextInt(10_000_000), exact ? 2 + random.nextInt(5) : 6 + random.nextInt(3));
+		}
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimal() {
+		int i = next++ & (OPERANDS - 1);
+		return quantities[i].multiply(multiples[i]);
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimalRounded() {
+		int i = next++ & (OPERANDS - 1);
+		BigDecimal quantity = quantities[i];
+		BigDecimal multiple = multiples[i];
+		return quantity.multiply(multiple)
+				.setScale(Math.min(quantity.scale() + multiple.scale(), FixedPointMoney.MAX_SCALE), FixedPointMoney.ROUNDING);
+	}
+
+	@Benchmark
+	public BigDecimal fixedPoint() {
+		int i = next++ & (OPERANDS - 1);
+		return FixedPointMoney.multiply(quantities[i], multiples[i]);
+	}
+}
@@ -0,0 +1,48 @@
+package com.amit.microservices.currencycommon.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FixedPointMoneyTest {
+
+	@Test
+	void keepsTheScaleOfTheOperands() {
+		assertThat(FixedPointMoney.multiply(new BigDecimal("10"), new BigDecimal("65.00"))).isEqualTo("650.00");
+		assertThat(FixedPointMoney.multiply(new BigDecimal("2.5"), new BigDecimal("0.011"))).isEqualTo("0.0275");
+	}
+
+	@Test
+	void roundsHalfEvenBeyondMaxScale() {
+		// exact product 0.000000000025 has scale 12
+		assertThat(FixedPointMoney.multiply(new BigDecimal("0.000005"), new BigDecimal("0.000005")))
+				.isEqualTo("0.0000000000");
+		assertThat(FixedPointMoney.multiply(new BigDecimal("0.000015"), new BigDecimal("0.00001")))
+				.isEqualTo("0.0000000002");
+		assertThat(FixedPointMoney.multiply(new BigDecimal("-0.000015"), new BigDecimal("0.00001")))
+				.isEqualTo("-0.0000000002");
+	}
+
+	@Test
+	void fallsBackToBigDecimalOnOverflow() {
+		BigDecimal large = new BigDecimal("987654321987654321");
+		assertThat(FixedPointMoney.multiply(large, large)).isEqualTo(large.multiply(large));
+		BigDecimal huge = new BigDecimal("12345678901234567890.12");
+		assertThat(FixedPointMoney.multiply(huge, BigDecimal.TEN)).isEqualTo("123456789012345678901.20");
+	}
+
+	@Test
+	void matchesBigDecimalArithmetic() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			BigDecimal quantity = BigDecimal.valueOf(random.nextLong() % 1_000_000_000_000L, random.nextInt(9));
+			BigDecimal multiple = BigDecimal.valueOf(random.nextLong() % 1_000_000_000L, random.nextInt(12));
+			int scale = Math.min(quantity.scale() + multiple.scale(), FixedPointMoney.MAX_SCALE);
+			assertThat(FixedPointMoney.multiply(quantity, multiple))
+					.isEqualTo(quantity.multiply(multiple).setScale(scale, FixedPointMoney.ROUNDING));
+		}
+	}
+}